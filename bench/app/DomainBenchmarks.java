@@ -0,0 +1,205 @@
+package app;
+
+
+
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ JMH benchmarks for the domain hot paths: room search at 100/10k/1M rooms,
+ price calculation with 0-20 services and an offer, promo code
+ construction and lookup, bulk room loading and card validation.
+ Run them with the GC profiler so allocation (gc.alloc.rate.norm, bytes
+ per op) and collection counts are reported next to the throughput.
+
+ Build and run from the repository root (JavaFX is not needed):
+   mvn -B -Pjmh package
+   java -jar target/benchmarks.jar -prof gc [regex]
+
+ Pass a regex to run only the matching benchmarks, e.g. "search" or "Price".
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DomainBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Rooms {
+        @Param({"100", "10000", "1000000"})
+        public int rooms;
+
+        Hotel hotel;
+        LocalDate from;
+        LocalDate to;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            hotel = hotelWith(rooms);
+            from = LocalDate.now().plusDays(7);
+            to = from.plusDays(3);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            hotel.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Priced {
+        @Param({"0", "5", "20"})
+        public int services;
+
+        Hotel hotel;
+        Booking booking;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            hotel = hotelWith(1);
+            booking = bookingWith(hotel, services);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            hotel.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Codes {
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < 1_000; i++) {
+                if (SpecialCodeOffer.find("CODE" + i) == null) {
+                    SpecialCodeOffer.addCode("CODE" + i, 0.1);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Card {
+        Date expiry;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            expiry = new Date(System.currentTimeMillis() + 365L * 86_400_000L);
+        }
+    }
+
+    @Benchmark
+    public int searchAvailableRooms(Rooms state) throws Exception {
+        return state.hotel.searchAvailableRooms(state.from, state.to).size();
+    }
+
+    @Benchmark
+    public int searchAvailableRoomsByType(Rooms state) throws Exception {
+        return state.hotel.searchAvailableRooms(RoomType.SUITE, state.from, state.to).size();
+    }
+
+    @Benchmark
+    public long calculatePrice(Priced state) {
+        return state.booking.calculatePrice();
+    }
+
+    @Benchmark
+    public int specialCodeOfferValid(Codes state) throws Exception {
+        return new SpecialCodeOffer("CODE500").getDiscountBasisPoints();
+    }
+
+    @Benchmark
+    public int specialCodeOfferInvalid(Codes state) {
+        try {
+            return new SpecialCodeOffer("NOPE").getDiscountBasisPoints();
+        } catch (InvalidCodeException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public boolean specialCodeOfferFindInvalid(Codes state) {
+        return SpecialCodeOffer.find("NOPE") == null;
+    }
+
+    // Includes the hotel's shutdown, so every iteration leaves no threads behind
+    @Benchmark
+    public int addRoomBulk10k() throws Exception {
+        Hotel hotel = hotelWith(10_000);
+        int size = hotel.getRooms().size();
+        hotel.shutdown();
+        return size;
+    }
+
+    @Benchmark
+    public int creditCardPaymentValidate(Card state) {
+        return new CreditCardPayment("4111111111111111", state.expiry, "Jane Doe", "123").hashCode();
+    }
+
+    // Fixtures
+    private static Hotel hotelWith(int rooms) throws Exception {
+        Hotel hotel = new Hotel();
+        LocalDate base = LocalDate.now().plusDays(1);
+        for (int i = 1; i <= rooms; i++) {
+            Room room = switch (i % 3) {
+                case 0 -> new SingleRoom(i, Money.of(80 + i % 50), true);
+                case 1 -> new DoubleRoom(i, Money.of(120 + i % 80), true);
+                default -> new SuiteRoom(i, Money.of(250 + i % 150), true);
+            };
+            hotel.addRoom(room);
+            if (i % 2 == 0) {
+                LocalDate from = base.plusDays(i % 20);
+                room.reserve(from, from.plusDays(2)); // half the rooms have a future stay
+            }
+        }
+        return hotel;
+    }
+
+    private static Booking bookingWith(Hotel hotel, int services) throws Exception {
+        ReservationEngine engine = new ReservationEngine(hotel);
+        LocalDate from = LocalDate.now().plusDays(60);
+        Reservation reservation = engine.reserve(1, from, from.plusDays(4)).getReservation();
+        Booking booking = new Booking(new Customer("Bench Mark", "bench@example.com", "password123"), reservation);
+        List<Service> extras = new ArrayList<>();
+        for (int i = 0; i < services; i++) {
+            extras.add(i % 2 == 0
+                    ? new SpaService(i, "Spa", "Relaxing treatments", Money.of(50), "Basic")
+                    : new LaundryService(i, "Laundry", "Professional laundry", Money.of(10), 5));
+        }
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Service.useService() prints
+        try {
+            for (Service service : extras) {
+                booking.addService(service);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        booking.setOfferApplied(new SeasonalOffer(0.1, // window around the reserved nights
+                Date.from(from.minusDays(1).atStartOfDay(zone).toInstant()),
+                Date.from(from.plusDays(10).atStartOfDay(zone).toInstant())));
+        return booking;
+    }
+}
@@ -3,12 +3,14 @@ package app;
 
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -18,24 +20,35 @@ import javafx.stage.Stage;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.stream.Collectors;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
 
 public class App extends Application {
 
     private Hotel hotel = new Hotel();
+    private ReservationEngine reservationEngine = new ReservationEngine(hotel);
+    private BookingService bookingService = new BookingService(reservationEngine);
     private ObservableList<Booking> bookings = FXCollections.observableArrayList();
     private ObservableList<Room> availableRooms = FXCollections.observableArrayList();
-    private ObservableList<Review> reviews = FXCollections.observableArrayList();
-    private List<SeasonalOffer> seasonalOffers = new ArrayList<>();
+    private RoomCardGrid roomGrid;
+    private RoomType roomFilter; // type shown in the Rooms tab, null for all
+    private ReviewWindow reviewWindow = new ReviewWindow(hotel, 20, 5); // bounded slice of the review feed
+    private Label reviewStatsLabel;
     private Customer currentCustomer;
-    private static final String ADMIN_USERNAME = "admin";
-    private static final String ADMIN_PASSWORD = "admin123";
+    private SessionStore sessions = new SessionStore(30, TimeUnit.MINUTES);
+    private Admin admin;
+    private String adminToken;
 
     @Override
     public void start(Stage primaryStage) {
         initializeSampleData();
+        hotel.addAvailabilityListener((room, available) -> Platform.runLater(() -> applyAvailability(room, available)));
         
         TabPane tabPane = new TabPane();
         tabPane.setStyle("-fx-background-color: linear-gradient(to bottom, #4e54c8, #8f94fb);");
@@ -47,6 +60,7 @@ public class App extends Application {
         Tab adminTab = createAdminTab();
 
         tabPane.getTabs().addAll(bookingTab, roomsTab, servicesTab, reviewsTab, adminTab);
+        hotel.getEvents().subscribe("ui", new ViewUpdater());
 
         Scene scene = new Scene(tabPane, 900, 650);
         scene.setFill(Color.web("#f5f7fa"));
@@ -56,25 +70,39 @@ public class App extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        bookingService.shutdown();
+        sessions.logout(adminToken);
+        sessions.shutdown();
+        hotel.shutdown();
+    }
+
     private void initializeSampleData() {
         try {
             // Add sample rooms
-            hotel.addRoom(new SingleRoom(101, 100.0, true));
-            hotel.addRoom(new DoubleRoom(201, 150.0, true));
-            hotel.addRoom(new SuiteRoom(301, 250.0, true));
-            hotel.addRoom(new SingleRoom(102, 100.0, false));
-            hotel.addRoom(new DoubleRoom(202, 150.0, true));
+            hotel.addRoom(new SingleRoom(101, Money.of(100), true));
+            hotel.addRoom(new DoubleRoom(201, Money.of(150), true));
+            hotel.addRoom(new SuiteRoom(301, Money.of(250), true));
+            hotel.addRoom(new SingleRoom(102, Money.of(100), false));
+            hotel.addRoom(new DoubleRoom(202, Money.of(150), true));
+
+            // Admin account; the password is only kept as a salted hash
+            admin = new Admin("admin", "admin@hotel.local", System.getProperty("hotel.adminPassword", "admin123"));
 
             // Initialize available rooms
             updateAvailableRooms();
 
             // Add sample reviews
-            Customer sampleCustomer = new Customer("John Doe", "john@example.com", "password123");
-            reviews.add(new Review(1, sampleCustomer, 5, "Excellent service!", new Date()));
-            reviews.add(new Review(2, sampleCustomer, 4, "Very good experience", new Date()));
+            Customer sampleCustomer = hotel.getCustomerRegistry().findOrCreate("John Doe", "john@example.com", "password123");
+            for (Review review : List.of(
+                    new Review(sampleCustomer, RoomType.SUITE, 5, "Excellent service!", new Date()),
+                    new Review(sampleCustomer, RoomType.DOUBLE, 4, "Very good experience", new Date()))) {
+                hotel.addReview(review);
+            }
 
             // Initialize offers
-            seasonalOffers.add(new SeasonalOffer(0.1, 
+            hotel.addOffer(new SeasonalOffer(0.1, 
                 new Date(System.currentTimeMillis() - 86400000L), 
                 new Date(System.currentTimeMillis() + 86400000L * 10)));
             SpecialCodeOffer.addCode("SUMMER20", 0.2);
@@ -83,14 +111,33 @@ public class App extends Application {
         }
     }
 
+    // Full reload, only when the filter changes; bookings arrive as availability events
     private void updateAvailableRooms() {
         try {
-            availableRooms.setAll(hotel.searchAvailableRooms());
+            List<Room> rooms = roomFilter == null ? hotel.searchAvailableRooms() : hotel.searchAvailableRooms(roomFilter);
+            rooms.sort(Comparator.comparingInt(Room::getRoomNumber));
+            RoomCardGrid.patch(availableRooms, rooms);
+            if (roomGrid != null) {
+                roomGrid.refresh(); // prices and status of rooms that stayed in the list
+            }
         } catch (Hotel.HotelOperationException e) {
             showAlert("Error", e.getMessage());
         }
     }
 
+    // One room in or out of availableRooms, which is sorted by room number
+    private void applyAvailability(Room room, boolean available) {
+        if (roomFilter != null && room.getRoomType() != roomFilter) {
+            return;
+        }
+        int index = Collections.binarySearch(availableRooms, room, Comparator.comparingInt(Room::getRoomNumber));
+        if (available && index < 0) {
+            availableRooms.add(-index - 1, room);
+        } else if (!available && index >= 0) {
+            availableRooms.remove(index);
+        }
+    }
+
     private Tab createBookingTab() {
         Tab tab = new Tab("Bookings");
         tab.setClosable(false);
@@ -178,14 +225,14 @@ public class App extends Application {
                 if (empty || booking == null) {
                     setText(null);
                 } else {
-                    setText(String.format("Booking #%d - %s - Room %d (%s) - %s to %s - $%.2f",
+                    setText(String.format("Booking #%d - %s - Room %d (%s) - %s to %s - %s",
                         booking.getBookingId(),
                         booking.getCustomer().getName(),
                         booking.getRoom().getRoomNumber(),
                         booking.getRoom().getType(),
                         booking.getCheckInDate(),
                         booking.getCheckOutDate(),
-                        booking.getTotalPrice()));
+                        Money.format(booking.getTotalCents())));
                 }
             }
         });
@@ -198,9 +245,6 @@ public class App extends Application {
             if (selected != null) {
                 try {
                     selected.cancel();
-                    selected.getRoom().setAvailable(true);
-                    bookings.remove(selected);
-                    updateAvailableRooms();
                     showAlert("Success", "Booking #" + selected.getBookingId() + " cancelled successfully");
                 } catch (Booking.BookingOperationException ex) {
                     showAlert("Error", ex.getMessage());
@@ -242,7 +286,7 @@ public class App extends Application {
                 throw new IllegalArgumentException("Please select check-in and check-out dates");
             }
 
-            if (checkInPicker.getValue().isAfter(checkOutPicker.getValue())) {
+            if (!checkInPicker.getValue().isBefore(checkOutPicker.getValue())) {
                 throw new IllegalArgumentException("Check-in date must be before check-out date");
             }
 
@@ -251,84 +295,60 @@ public class App extends Application {
             }
 
             // Create customer
-            Customer customer = new Customer(
+            // Repeat guests get their existing account and booking history back
+            Customer customer = hotel.getCustomerRegistry().findOrCreate(
                 customerNameField.getText(), 
-                emailField.getText(), 
-                "tempPassword123"
+                emailField.getText()
             );
 
-            // Find available room
-            Room selectedRoom = availableRooms.stream()
-                .filter(room -> room.getType().equalsIgnoreCase(roomTypeCombo.getValue()))
-                .findFirst()
-                .orElseThrow(() -> new Exception("No available rooms of selected type"));
-
-            // Convert dates
-            Date checkInDate = Date.from(checkInPicker.getValue().atStartOfDay(ZoneId.systemDefault()).toInstant());
-            Date checkOutDate = Date.from(checkOutPicker.getValue().atStartOfDay(ZoneId.systemDefault()).toInstant());
-
-            // Create booking
-            Booking booking = new Booking(
-                bookings.size() + 1,
-                customer,
-                selectedRoom,
-                checkInDate,
-                checkOutDate
-            );
-
-            // Apply seasonal offer if available
-            for (SeasonalOffer offer : seasonalOffers) {
-                  if (offer.checkOffer()) {
-                    booking.setOfferApplied(offer);
-                    break;
-                }
-            }
-
-            // Apply promo code if valid
+            // Promo code is checked up front so the guest hears about a bad code right away
+            Offer promoOffer = null;
             String promoCode = promoCodeField.getText().trim();
             if (!promoCode.isEmpty()) {
-                try {
-                    SpecialCodeOffer promoOffer = new SpecialCodeOffer(promoCode);
-                    booking.setOfferApplied(promoOffer);
-                } catch (InvalidCodeException e) {
+                promoOffer = SpecialCodeOffer.find(promoCode);
+                if (promoOffer == null) {
                     showAlert("Invalid Promo Code", "The promo code you entered is not valid");
                 }
             }
 
-            // Add services
+            // Services
+            List<Service> services = new ArrayList<>();
             if (roomServiceCheck.isSelected()) {
-                booking.addService(new RoomService(1, "Room Service", "In-room dining", 15.0, "Dinner"));
+                services.add(new RoomService(1, "Room Service", "In-room dining", Money.of(15), "Dinner"));
             }
             if (laundryCheck.isSelected()) {
-                booking.addService(new LaundryService(2, "Laundry", "Professional laundry", 10.0, 5));
+                services.add(new LaundryService(2, "Laundry", "Professional laundry", Money.of(10), 5));
             }
             if (spaCheck.isSelected()) {
-                booking.addService(new SpaService(3, "Spa", "Relaxing treatments", 50.0, "Basic"));
+                services.add(new SpaService(3, "Spa", "Relaxing treatments", Money.of(50), "Basic"));
             }
 
-            // Process payment
+            // Collect payment details
             Payment paymentMethod = showPaymentDialog(paymentGroup);
             if (paymentMethod == null) {
                 return; // User cancelled payment
             }
 
-            if (paymentMethod.pay(booking.getTotalPrice())) {
-                selectedRoom.setAvailable(false);
-                bookings.add(booking);
-                updateAvailableRooms();
-                
-                // Send notification
-                Email_Notification notification = new Email_Notification();
-                notification.set_message("Thank you for your booking!\n" +
-                    "Booking ID: " + booking.getBookingId() + "\n" +
-                    "Room: " + selectedRoom.getRoomNumber() + " (" + selectedRoom.getType() + ")\n" +
-                    "Check-in: " + checkInPicker.getValue() + "\n" +
-                    "Check-out: " + checkOutPicker.getValue() + "\n" +
-                    "Total: $" + booking.getTotalPrice());
-                notification.send();
-                
-                showAlert("Success", "Booking confirmed! Total: $" + booking.getTotalPrice());
-            }
+            BookingRequest request = new BookingRequest(
+                customer,
+                RoomType.fromLabel(roomTypeCombo.getValue()),
+                checkInPicker.getValue(),
+                checkOutPicker.getValue(),
+                promoOffer,
+                services,
+                paymentMethod
+            );
+
+            // Reservation, payment and notification run in the background;
+            // only the result is handed back to the FX thread
+            bookingService.submit(request).whenComplete((booking, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    showAlert("Error", cause.getMessage());
+                    return;
+                }
+                showAlert("Success", "Booking confirmed! Total: " + Money.format(booking.getTotalCents()));
+            }));
         } catch (Exception ex) {
             showAlert("Error", ex.getMessage());
         }
@@ -438,69 +458,23 @@ public class App extends Application {
         
         filterCombo.setOnAction(e -> {
             String selectedType = filterCombo.getValue();
-            if (selectedType.equals("All")) {
-                updateAvailableRooms();
-            } else {
-                availableRooms.setAll(hotel.getRooms().stream()
-                    .filter(room -> room.getType().equalsIgnoreCase(selectedType) && room.isAvailable())
-                    .collect(Collectors.toList()));
-            }
+            roomFilter = selectedType.equals("All") ? null : RoomType.fromLabel(selectedType);
+            updateAvailableRooms();
         });
         
         filterBox.getChildren().addAll(filterLabel, filterCombo);
         
-        // Room cards
-        FlowPane roomCards = new FlowPane(20, 20);
-        roomCards.setAlignment(Pos.CENTER);
-        
-        // Bind to available rooms
-        availableRooms.addListener((javafx.collections.ListChangeListener.Change<? extends Room> c) -> {
-            roomCards.getChildren().clear();
-            availableRooms.forEach(room -> {
-                VBox card = createRoomCard(room);
-                roomCards.getChildren().add(card);
-            });
-        });
-        
-        // Initial population
-        availableRooms.forEach(room -> {
-            VBox card = createRoomCard(room);
-            roomCards.getChildren().add(card);
-        });
-        
-        layout.getChildren().addAll(title, filterBox, roomCards);
-        tab.setContent(layout);
-        return tab;
-    }
-    private VBox createRoomCard(Room room) {
-        VBox card = new VBox(10);
-        card.setPadding(new Insets(15));
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-border-radius: 10; " +
-                     "-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 5, 0, 0);");
-        card.setPrefWidth(250);
-        
-        Label roomLabel = new Label("Room #" + room.getRoomNumber());
-        roomLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
-        roomLabel.setTextFill(Color.web("#3a4a6d"));
-        
-        Label typeLabel = new Label("Type: " + room.getType());
-        Label priceLabel = new Label("Price: $" + room.getPrice() + "/night");
-        Label capacityLabel = new Label("Capacity: " + room.getCapacity() + " person(s)");
-        Label statusLabel = new Label(room.isAvailable() ? "Available" : "Occupied");
-        statusLabel.setTextFill(room.isAvailable() ? Color.GREEN : Color.RED);
-        
-        Button bookButton = new Button("Book Now");
-        bookButton.setStyle("-fx-background-color: #4a47a3; -fx-text-fill: white;");
-        bookButton.setDisable(!room.isAvailable());
-        
-        bookButton.setOnAction(e -> {
-            TabPane tabPane = (TabPane) bookButton.getScene().getRoot();
+        // Room cards: only the rows in view are built, list changes patch the cards in place
+        roomGrid = new RoomCardGrid(availableRooms, room -> {
+            TabPane tabPane = (TabPane) layout.getScene().getRoot();
             tabPane.getSelectionModel().select(0); // Switch to booking tab
             showAlert("Info", "Please complete your booking for Room #" + room.getRoomNumber());
         });
+        VBox.setVgrow(roomGrid.getView(), Priority.ALWAYS);
         
-        card.getChildren().addAll(roomLabel, typeLabel, priceLabel, capacityLabel, statusLabel, bookButton);
-        return card;
+        layout.getChildren().addAll(title, filterBox, roomGrid.getView());
+        tab.setContent(layout);
+        return tab;
     }
     private Tab createServicesTab() {
         Tab tab = new Tab("Services");
@@ -518,16 +492,16 @@ public class App extends Application {
         VBox serviceCards = new VBox(15);
         
         // Room Service card
-        HBox roomServiceCard = createServiceCard("Room Service", "Enjoy meals in your room", 150.0, "Meal Type:");
-        HBox laundryCard = createServiceCard("Laundry Service", "Professional laundry service", 100.0, "Clothes Count:");
-        HBox spaCard = createServiceCard("Spa Service", "Relaxing spa treatments", 50.0, "Package:");
+        HBox roomServiceCard = createServiceCard("Room Service", "Enjoy meals in your room", Money.of(150), "Meal Type:");
+        HBox laundryCard = createServiceCard("Laundry Service", "Professional laundry service", Money.of(100), "Clothes Count:");
+        HBox spaCard = createServiceCard("Spa Service", "Relaxing spa treatments", Money.of(50), "Package:");
         
         serviceCards.getChildren().addAll(roomServiceCard, laundryCard, spaCard);
         layout.getChildren().addAll(title, serviceCards);
         tab.setContent(layout);
         return tab;
     }
-     private HBox createServiceCard(String name, String description, double price, String detailLabel) {
+     private HBox createServiceCard(String name, String description, long priceCents, String detailLabel) {
         HBox card = new HBox(15);
         card.setPadding(new Insets(15));
         card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-border-radius: 10;");
@@ -540,7 +514,7 @@ public class App extends Application {
         
         Label descLabel = new Label(description);
         descLabel.setWrapText(true);
-        Label priceLabel = new Label("$" + price);
+        Label priceLabel = new Label(Money.format(priceCents));
         
         infoBox.getChildren().addAll(nameLabel, descLabel, priceLabel);
         
@@ -576,6 +550,10 @@ public class App extends Application {
         title.setFont(Font.font("Arial", FontWeight.BOLD, 20));
         title.setTextFill(Color.web("#1e8449"));
         
+        // Running aggregates, no rescan of the reviews
+        reviewStatsLabel = new Label(hotel.getReviewStats().toString());
+        reviewStatsLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
+        
         // Review form
         VBox reviewForm = new VBox(10);
         reviewForm.setPadding(new Insets(15));
@@ -587,10 +565,17 @@ public class App extends Application {
         TextField nameField = new TextField();
         nameField.setPromptText("Your Name");
         
+        TextField reviewEmailField = new TextField();
+        reviewEmailField.setPromptText("Your Email");
+        
         ComboBox<Integer> ratingCombo = new ComboBox<>();
         ratingCombo.getItems().addAll(1, 2, 3, 4, 5);
         ratingCombo.setPromptText("Rating (1-5)");
         
+        ComboBox<String> stayTypeCombo = new ComboBox<>();
+        stayTypeCombo.getItems().addAll("Single", "Double", "Suite");
+        stayTypeCombo.setPromptText("Room Type (optional)");
+        
         TextArea commentArea = new TextArea();
         commentArea.setPromptText("Your review...");
         commentArea.setPrefRowCount(3);
@@ -609,75 +594,165 @@ public class App extends Application {
                     throw new IllegalArgumentException("Please write your review");
                 }
                 
-                Customer customer = new Customer(nameField.getText(), "guest@example.com", "password123");
+                if (reviewEmailField.getText().trim().isEmpty()) {
+                    throw new IllegalArgumentException("Please enter your email");
+                }
+                
+                Customer customer = hotel.getCustomerRegistry().findOrCreate(nameField.getText(), reviewEmailField.getText());
                 Review review = new Review(
-                    reviews.size() + 1,
                     customer,
+                    stayTypeCombo.getValue() == null ? null : RoomType.fromLabel(stayTypeCombo.getValue()),
                     ratingCombo.getValue(),
                     commentArea.getText(),
                     new Date()
                 );
                 
-                hotel.addReview(review);
-                reviews.add(review);
+                hotel.addReview(review); // the list and the stats follow through ViewUpdater
                 
                 showAlert("Thank You", "Your review has been submitted!");
                 
                 // Clear form
                 nameField.clear();
+                reviewEmailField.clear();
                 ratingCombo.getSelectionModel().clearSelection();
+                stayTypeCombo.getSelectionModel().clearSelection();
                 commentArea.clear();
             } catch (Exception ex) {
                 showAlert("Error", ex.getMessage());
             }
         });
         
-        reviewForm.getChildren().addAll(formTitle, nameField, ratingCombo, commentArea, submitButton);
+        reviewForm.getChildren().addAll(formTitle, nameField, reviewEmailField, ratingCombo, stayTypeCombo, commentArea, submitButton);
         
-        // Review list
-        ListView<Review> reviewList = new ListView<>(reviews);
+        // Review list: pages are fetched when the first or last row comes into view
+        reviewWindow.reset();
+        ListView<Review> reviewList = new ListView<>(reviewWindow.getItems());
         reviewList.setStyle("-fx-background-color: white; -fx-background-radius: 10;");
-        reviewList.setCellFactory(param -> new ListCell<Review>() {
-            @Override
-            protected void updateItem(Review review, boolean empty) {
-                super.updateItem(review, empty);
-                if (empty || review == null) {
-                    setText(null);
-                    setGraphic(null);
-                } else {
-                    setGraphic(createReviewItem(review));
-                }
+        reviewList.setCellFactory(param -> new ReviewCell(index -> {
+            if (reviewList.getItems() != reviewWindow.getItems()) {
+                return; // showing search results
+            }
+            if (index == reviewWindow.getItems().size() - 1 && reviewWindow.hasNext()) {
+                Platform.runLater(() -> {
+                    int top = firstVisibleIndex(reviewList);
+                    int dropped = reviewWindow.loadNext();
+                    if (dropped > 0) {
+                        reviewList.scrollTo(Math.max(0, top - dropped));
+                    }
+                });
+            } else if (index == 0 && !reviewWindow.isAtTop()) {
+                Platform.runLater(() -> reviewList.scrollTo(reviewWindow.loadPrevious()));
+            }
+        }));
+        
+        // Search runs on the hotel's inverted index; an empty box shows every review again
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search reviews (\"quotes\" for a phrase)");
+        searchField.textProperty().addListener((obs, oldText, text) -> {
+            if (text.trim().isEmpty()) {
+                reviewList.setItems(reviewWindow.getItems());
+            } else {
+                reviewList.setItems(FXCollections.observableArrayList(hotel.searchReviews(text, 50)));
             }
         });
         
-        layout.getChildren().addAll(title, reviewForm, reviewList);
+        layout.getChildren().addAll(title, reviewStatsLabel, reviewForm, searchField, reviewList);
         tab.setContent(layout);
         return tab;
     }
-    private VBox createReviewItem(Review review) {
-        VBox reviewItem = new VBox(5);
-        reviewItem.setPadding(new Insets(10));
-        reviewItem.setStyle("-fx-border-color: #d5f5e3; -fx-border-width: 1; -fx-border-radius: 5;");
-        
-        HBox header = new HBox(10);
-        header.setAlignment(Pos.CENTER_LEFT);
-        
-        Label nameLabel = new Label(review.getCustomer().getName());
-        nameLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-        
-        Label ratingLabel = new Label("Rating: " + review.getRating() + "/5");
-        ratingLabel.setTextFill(Color.web("#1e8449"));
-        
-        Label dateLabel = new Label(review.getDate().toString());
-        dateLabel.setStyle("-fx-text-fill: #666;");
-        
-        header.getChildren().addAll(nameLabel, ratingLabel, dateLabel);
-        
-        Label commentLabel = new Label(review.getComment());
-        commentLabel.setWrapText(true);
-        
-        reviewItem.getChildren().addAll(header, commentLabel);
-        return reviewItem;
+    private static int firstVisibleIndex(ListView<?> list) {
+        VirtualFlow<?> flow = (VirtualFlow<?>) list.lookup(".virtual-flow");
+        IndexedCell<?> cell = flow == null ? null : flow.getFirstVisibleCell();
+        return cell == null ? 0 : cell.getIndex();
+    }
+
+    /*
+     Applies the hotel's domain events to the views. Runs on the event bus
+     thread: it only collects what changed and hands each batch to the FX
+     thread as one runLater, so a burst of bookings costs one UI update.
+    */
+    private class ViewUpdater implements DomainEventBus.Handler {
+        private final List<Booking> created = new ArrayList<>();
+        private final List<Booking> cancelled = new ArrayList<>();
+        private boolean pricesChanged;
+        private boolean reviewsChanged;
+
+        @Override
+        public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+            switch (event.getType()) {
+                case BOOKING_CREATED -> created.add(event.getBooking());
+                case BOOKING_CANCELLED -> cancelled.add(event.getBooking());
+                case PRICE_CHANGED -> pricesChanged = true;
+                case REVIEW_ADDED -> reviewsChanged = true;
+                default -> { } // rooms and offers reach the views through availability events
+            }
+            if (!endOfBatch || (created.isEmpty() && cancelled.isEmpty() && !pricesChanged && !reviewsChanged)) {
+                return;
+            }
+            List<Booking> added = new ArrayList<>(created);
+            List<Booking> removed = new ArrayList<>(cancelled);
+            boolean prices = pricesChanged;
+            boolean reviews = reviewsChanged;
+            created.clear();
+            cancelled.clear();
+            pricesChanged = false;
+            reviewsChanged = false;
+            Platform.runLater(() -> {
+                bookings.addAll(added);
+                bookings.removeAll(removed);
+                if (prices && roomGrid != null) {
+                    roomGrid.refresh();
+                }
+                if (reviews) {
+                    reviewStatsLabel.setText(hotel.getReviewStats().toString());
+                    if (reviewWindow.isAtTop()) {
+                        reviewWindow.reset(); // new reviews are the newest, show them if the top is in view
+                    }
+                }
+            });
+        }
+    }
+
+    // Builds its nodes once and only swaps the texts as the ListView recycles it
+    private static class ReviewCell extends ListCell<Review> {
+        private final IntConsumer onShow;
+        private final VBox reviewItem = new VBox(5);
+        private final Label nameLabel = new Label();
+        private final Label ratingLabel = new Label();
+        private final Label dateLabel = new Label();
+        private final Label commentLabel = new Label();
+
+        ReviewCell(IntConsumer onShow) {
+            this.onShow = onShow;
+            reviewItem.setPadding(new Insets(10));
+            reviewItem.setStyle("-fx-border-color: #d5f5e3; -fx-border-width: 1; -fx-border-radius: 5;");
+            
+            HBox header = new HBox(10);
+            header.setAlignment(Pos.CENTER_LEFT);
+            nameLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+            ratingLabel.setTextFill(Color.web("#1e8449"));
+            dateLabel.setStyle("-fx-text-fill: #666;");
+            header.getChildren().addAll(nameLabel, ratingLabel, dateLabel);
+            
+            commentLabel.setWrapText(true);
+            reviewItem.getChildren().addAll(header, commentLabel);
+        }
+
+        @Override
+        protected void updateItem(Review review, boolean empty) {
+            super.updateItem(review, empty);
+            if (empty || review == null) {
+                setText(null);
+                setGraphic(null);
+                return;
+            }
+            nameLabel.setText(review.getCustomer().getName());
+            ratingLabel.setText("Rating: " + review.getRating() + "/5");
+            dateLabel.setText(String.valueOf(review.getDate()));
+            commentLabel.setText(review.getComment());
+            setGraphic(reviewItem);
+            onShow.accept(getIndex());
+        }
     }
     private Tab createAdminTab() {
         Tab tab = new Tab("Admin");
@@ -773,9 +848,19 @@ public class App extends Application {
     TextField discountField = new TextField();
     offerForm.add(discountField, 1, 1);
     
+    offerForm.add(new Label("Max Uses:"), 0, 2);
+    TextField maxUsesField = new TextField();
+    maxUsesField.setPromptText("Optional");
+    offerForm.add(maxUsesField, 1, 2);
+    
+    offerForm.add(new Label("Uses per Customer:"), 0, 3);
+    TextField perCustomerField = new TextField();
+    perCustomerField.setPromptText("Optional");
+    offerForm.add(perCustomerField, 1, 3);
+    
     Button addPromoButton = new Button("Add Promo");
     addPromoButton.setStyle("-fx-background-color: #4a47a3; -fx-text-fill: white;");
-    offerForm.add(addPromoButton, 0, 2, 2, 1);
+    offerForm.add(addPromoButton, 0, 4, 2, 1);
     
     offerPane.setContent(offerForm);
     
@@ -815,29 +900,46 @@ public class App extends Application {
     
     // Set button actions
     loginButton.setOnAction(e -> {
-        if (ADMIN_USERNAME.equals(usernameField.getText()) && ADMIN_PASSWORD.equals(passwordField.getText())) {
+        try {
+            if (admin == null || !admin.getName().equals(usernameField.getText())) {
+                throw new SessionStore.AuthenticationException("Invalid username or password");
+            }
+            adminToken = sessions.login(admin, passwordField.getText());
+            passwordField.clear();
             loginBox.setVisible(false);
             adminControls.setVisible(true);
-        } else {
-            showAlert("Error", "Invalid username or password");
+        } catch (SessionStore.AuthenticationException ex) {
+            showAlert("Error", ex.getMessage());
         }
     });
     
+    // Every admin action needs a live session; an idle one sends the admin back to the login box
+    BooleanSupplier adminSession = () -> {
+        if (sessions.validate(adminToken) != null) {
+            return true;
+        }
+        adminToken = null;
+        adminControls.setVisible(false);
+        loginBox.setVisible(true);
+        showAlert("Session Expired", "Please log in again");
+        return false;
+    };
+    
     addRoomButton.setOnAction(e -> {
+        if (!adminSession.getAsBoolean()) return;
         try {
             int roomNumber = Integer.parseInt(roomNumberField.getText());
-            double price = Double.parseDouble(roomPriceField.getText());
+            long priceCents = Money.parse(roomPriceField.getText());
             String type = roomTypeCombo.getValue();
             
             Room newRoom = switch(type) {
-                case "Single" -> new SingleRoom(roomNumber, price, true);
-                case "Double" -> new DoubleRoom(roomNumber, price, true);
-                case "Suite" -> new SuiteRoom(roomNumber, price, true);
+                case "Single" -> new SingleRoom(roomNumber, priceCents, true);
+                case "Double" -> new DoubleRoom(roomNumber, priceCents, true);
+                case "Suite" -> new SuiteRoom(roomNumber, priceCents, true);
                 default -> throw new IllegalArgumentException("Invalid room type");
             };
             
             hotel.addRoom(newRoom);
-            updateAvailableRooms();
             showAlert("Success", "Room added successfully");
             roomNumberField.clear();
             roomPriceField.clear();
@@ -848,25 +950,31 @@ public class App extends Application {
     });
     
     addPromoButton.setOnAction(e -> {
+        if (!adminSession.getAsBoolean()) return;
         try {
             String code = promoCodeField.getText();
             double discount = Double.parseDouble(discountField.getText());
-            SpecialCodeOffer.addCode(code, discount);
+            int maxUses = maxUsesField.getText().trim().isEmpty() ? PromoCode.UNLIMITED : Integer.parseInt(maxUsesField.getText().trim());
+            int perCustomer = perCustomerField.getText().trim().isEmpty() ? PromoCode.UNLIMITED : Integer.parseInt(perCustomerField.getText().trim());
+            SpecialCodeOffer.addCode(new PromoCode(code, discount, maxUses, perCustomer, null, null));
             showAlert("Success", "Promo code added successfully");
             promoCodeField.clear();
             discountField.clear();
+            maxUsesField.clear();
+            perCustomerField.clear();
         } catch (Exception ex) {
             showAlert("Error", ex.getMessage());
         }
     });
     
     addSeasonalButton.setOnAction(e -> {
+        if (!adminSession.getAsBoolean()) return;
         try {
             double discount = Double.parseDouble(seasonalDiscountField.getText());
             Date startDate = Date.from(startDatePicker.getValue().atStartOfDay(ZoneId.systemDefault()).toInstant());
             Date endDate = Date.from(endDatePicker.getValue().atStartOfDay(ZoneId.systemDefault()).toInstant());
             
-            seasonalOffers.add(new SeasonalOffer(discount, startDate, endDate));
+            hotel.addOffer(new SeasonalOffer(discount, startDate, endDate));
             showAlert("Success", "Seasonal offer added successfully");
             seasonalDiscountField.clear();
             startDatePicker.setValue(null);
@@ -0,0 +1,19 @@
+package app;
+
+
+
+
+/*
+ Told when a room of a Hotel becomes available (freed, checked out, added)
+ or stops being available (taken by a stay that includes today, booked,
+ removed). "Available" is Room.isAvailable(), the same test
+ Hotel.searchAvailableRooms() applies, so a view can keep its list current
+ by adding or removing just that room.
+ Called on the thread that made the change, after it is done; available is
+ read at that point, so when changes race the last event has the final
+ state. Keep it short, hand UI work to the UI thread.
+*/
+@FunctionalInterface
+public interface AvailabilityListener {
+    void availabilityChanged(Room room, boolean available);
+}
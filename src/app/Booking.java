@@ -1,61 +1,73 @@
 package app;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 public class Booking {
-     private int bookingId;
+     private final long bookingId;
     private Customer customer;
     private Room room;
+    private Reservation reservation;
     private List<Service> services;
     private Date checkInDate;
     private Date checkOutDate;
-    private double totalPrice;
-    private BookingStatus status;
+    private LocalDate stayStart;
+    private LocalDate stayEnd;
+    private long totalCents;
+    private final PricingEngine pricing = new PricingEngine();
+    private volatile BookingStatus status; // changed under the booking's monitor
     private Offer offerApplied;
+    private List<Offer> offersApplied = List.of();
 
-    public Booking(int bookingId, Customer customer, Room room, 
-                  Date checkInDate, Date checkOutDate) throws InvalidBookingException {
+    public Booking(Customer customer, Reservation reservation) throws InvalidBookingException {
         if (customer == null) {
             throw new InvalidBookingException("Customer cannot be null");
         }
-        if (room == null) {
-            throw new InvalidBookingException("Room cannot be null");
+        if (reservation == null) {
+            throw new InvalidBookingException("Reservation cannot be null");
         }
-        if (checkInDate == null || checkOutDate == null) {
-            throw new InvalidBookingException("Dates cannot be null");
-        }
-        if (checkInDate.after(checkOutDate)) {
-            throw new InvalidBookingException("Check-in date must be before check-out date");
+        if (!reservation.isActive()) {
+            throw new InvalidBookingException("Reservation for room #" + reservation.getRoom().getRoomNumber() + " has been released");
         }
      
-        this.bookingId = bookingId;
+        this.bookingId = IdGenerator.nextId();
         this.customer = customer;
-        this.room = room;
-        this.checkInDate = new Date(checkInDate.getTime());
-        this.checkOutDate = new Date(checkOutDate.getTime());
+        this.reservation = reservation;
+        this.room = reservation.getRoom();
+        this.stayStart = reservation.getFrom();
+        this.stayEnd = reservation.getTo();
+        this.checkInDate = toDate(stayStart);
+        this.checkOutDate = toDate(stayEnd);
         this.services = new ArrayList<>();
         this.status = BookingStatus.CONFIRMED;
-        this.totalPrice = calculatePrice();
+        pricing.priceStay(room.getPriceCents(), getNumberOfNights()); // nightly rate is locked in at booking time
+        this.totalCents = calculatePrice();
     }
 
-    public double calculatePrice() {
-        try {
-            double basePrice = room.getPrice() * getNumberOfNights();
-            double servicesPrice = services.stream().mapToDouble(Service::useService).sum();
-            
-            double finalPrice = basePrice + servicesPrice;
-            
-            if (offerApplied != null) {
-                finalPrice = offerApplied.applyOffer(finalPrice);
-            }
-            
-            this.totalPrice = finalPrice;
-            return finalPrice;
-        } catch (Exception e) {
-            throw new BookingOperationException("Error calculating booking price", e);
+    // One booking per room of a group reservation, all created together
+    public static List<Booking> createGroup(Customer customer, GroupReservation group)
+            throws InvalidBookingException {
+        if (group == null) {
+            throw new InvalidBookingException("Group reservation cannot be null");
+        }
+        List<Booking> created = new ArrayList<>(group.size());
+        for (Reservation reservation : group.getReservations()) {
+            created.add(new Booking(customer, reservation));
         }
+        for (Booking booking : created) { // one event per room, as for single bookings
+            booking.reservation.getEngine().getHotel().getEvents().bookingCreated(booking);
+        }
+        return created;
+    }
+
+    // O(1): reads the running subtotals kept by the pricing engine, no I/O
+    public long calculatePrice() {
+        this.totalCents = pricing.total();
+        return totalCents;
     }
 
     public void addService(Service service) throws InvalidServiceException {
@@ -68,32 +80,47 @@ public class Booking {
         
         try {
             services.add(service);
+            pricing.addService(service);
             calculatePrice(); // Recalculate total price
         } catch (Exception e) {
             throw new BookingOperationException("Error adding service to booking", e);
         }
     }
 
+    /*
+     Exactly one caller gets through: the status check and change are atomic,
+     so concurrent cancels (two DELETEs) release the stay and publish
+     BOOKING_CANCELLED once. The event goes out after the monitor is released,
+     and only if this call freed the room.
+    */
     public void cancel() throws BookingOperationException {
-        if (status == BookingStatus.CANCELLED) {
-            throw new BookingOperationException("Booking is already cancelled");
-        }
-        if (new Date().after(checkInDate)) {
-            throw new BookingOperationException("Cannot cancel booking after check-in date");
+        boolean released;
+        synchronized (this) {
+            if (status == BookingStatus.CANCELLED) {
+                throw new BookingOperationException("Booking is already cancelled");
+            }
+            if (new Date().after(checkInDate)) {
+                throw new BookingOperationException("Cannot cancel booking after check-in date");
+            }
+            try {
+                released = reservation.getEngine().release(reservation);
+                this.status = BookingStatus.CANCELLED;
+            } catch (Exception e) {
+                throw new BookingOperationException("Error cancelling booking", e);
+            }
         }
-        
-        try {
-            this.status = BookingStatus.CANCELLED;
-            // Additional cancellation logic could go here
-        } catch (Exception e) {
-            throw new BookingOperationException("Error cancelling booking", e);
+        if (released) {
+            reservation.getEngine().getHotel().getEvents().bookingCancelled(this);
         }
     }
 
     // Helper method
     private long getNumberOfNights() {
-        long diff = checkOutDate.getTime() - checkInDate.getTime();
-        return diff / (1000 * 60 * 60 * 24); // Convert milliseconds to days
+        return ChronoUnit.DAYS.between(stayStart, stayEnd);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
 
     // Custom exceptions
@@ -123,7 +150,7 @@ public class Booking {
         }
     }
     // Getters and Setters
-    public int getBookingId() {
+    public long getBookingId() {
         return bookingId;
     }
 
@@ -135,6 +162,10 @@ public class Booking {
         return room;
     }
 
+    public Reservation getReservation() {
+        return reservation;
+    }
+
     public List<Service> getServices() {
         return new ArrayList<>(services); // Defensive copy
     }
@@ -147,8 +178,29 @@ public class Booking {
         return new Date(checkOutDate.getTime()); // Defensive copy
     }
 
+    public LocalDate getStayStart() {
+        return stayStart;
+    }
+
+    public LocalDate getStayEnd() {
+        return stayEnd;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    // Only for display and JSON; all arithmetic stays in cents
     public double getTotalPrice() {
-        return totalPrice;
+        return Money.toUnits(totalCents);
+    }
+
+    public long getSubtotalCents() {
+        return pricing.getSubtotal();
+    }
+
+    public long getDiscountCents() {
+        return pricing.getDiscount();
     }
 
     public BookingStatus getStatus() {
@@ -159,15 +211,42 @@ public class Booking {
         return offerApplied;
     }
 
+    public List<Offer> getOffersApplied() {
+        return offersApplied;
+    }
+
     public void setOfferApplied(Offer offer) throws InvalidOfferException {
         if (offer == null) {
             throw new InvalidOfferException("Offer cannot be null");
         }
+        applyOffers(List.of(offer));
+    }
+
+    // Replaces the applied offers; they are applied in list order (see OfferResolver.resolve)
+    public void applyOffers(List<Offer> offers) throws InvalidOfferException {
+        if (offers == null) {
+            throw new InvalidOfferException("Offers cannot be null");
+        }
         if (status != BookingStatus.CONFIRMED) {
             throw new InvalidOfferException("Cannot apply offer to a cancelled or completed booking");
         }
-        this.offerApplied = offer;
-        calculatePrice(); // Recalculate with new offer
+        for (Offer offer : offers) {
+            if (offer == null || !appliesToStay(offer)) {
+                throw new InvalidOfferException("The offer is not active");
+            }
+        }
+        this.offersApplied = List.copyOf(offers);
+        this.offerApplied = offersApplied.isEmpty() ? null : offersApplied.get(0);
+        pricing.applyOffers(offersApplied);
+        calculatePrice(); // Recalculate with new offers
+    }
+
+    // A seasonal offer counts for the nights it covers, whatever today's date; other offers while active
+    private boolean appliesToStay(Offer offer) {
+        if (offer instanceof SeasonalOffer) {
+            return ((SeasonalOffer) offer).coversStay(stayStart, stayEnd);
+        }
+        return offer.isActive();
     }
 }
 
@@ -0,0 +1,161 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Runs the whole booking flow (reserve, price, offers, payment, notification)
+ off the caller's thread and hands back a CompletableFuture<Booking>.
+ Every submission gets its own (virtual when available) thread, so a slow
+ payment provider only delays that one booking.
+ The future fails with Booking.BookingOperationException when the room cannot
+ be reserved, the promo code has no uses left or the payment is declined; the
+ reservation and the promo redemption are released then.
+ A confirmed booking is published as BOOKING_CREATED; the confirmation email
+ is sent by this service's subscriber on the hotel's event bus, not inside
+ the booking flow.
+*/
+public class BookingService {
+    private final ReservationEngine reservationEngine;
+    private final Hotel hotel;
+    private final ExecutorService executor;
+    private final StackingPolicy stackingPolicy;
+    private final DomainEventBus.Subscription notifications;
+
+    public BookingService(ReservationEngine reservationEngine) {
+        this(reservationEngine, StackingPolicy.PROMO_OVERRIDES);
+    }
+
+    public BookingService(ReservationEngine reservationEngine, StackingPolicy stackingPolicy) {
+        if (reservationEngine == null) throw new IllegalArgumentException("Reservation engine cannot be null");
+        if (stackingPolicy == null) throw new IllegalArgumentException("Stacking policy cannot be null");
+        this.reservationEngine = reservationEngine;
+        this.stackingPolicy = stackingPolicy;
+        this.hotel = reservationEngine.getHotel();
+        this.executor = VirtualThreads.newPerTaskExecutor("booking");
+        this.notifications = hotel.getEvents().subscribe("notifications", this::sendConfirmation);
+    }
+
+    public CompletableFuture<Booking> submit(BookingRequest request) {
+        if (request == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Booking request cannot be null"));
+        }
+        return CompletableFuture.supplyAsync(() -> process(request), executor);
+    }
+
+    private Booking process(BookingRequest request) {
+        ReservationResult result = reservationEngine.reserveAny(request.getRoomType(), request.getCheckIn(), request.getCheckOut());
+        if (!result.isReserved()) {
+            throw new Booking.BookingOperationException(result.getMessage());
+        }
+        Reservation reservation = result.getReservation();
+        boolean confirmed = false;
+        SpecialCodeOffer redeemed = null;
+        try {
+            Booking booking = new Booking(request.getCustomer(), reservation);
+
+            List<Offer> offers = hotel.getOfferResolver().resolve(
+                    request.getCheckIn(), request.getCheckOut(), request.getPromoOffer(), stackingPolicy);
+            if (request.getPromoOffer() instanceof SpecialCodeOffer && offers.contains(request.getPromoOffer())) {
+                SpecialCodeOffer promo = (SpecialCodeOffer) request.getPromoOffer();
+                SpecialCodeOffer.getRegistry().redeem(promo.getPromoCode(), request.getCustomer().getEmail(), new Date());
+                redeemed = promo;
+            }
+            if (!offers.isEmpty()) {
+                booking.applyOffers(offers);
+            }
+            for (Service service : request.getServices()) {
+                booking.addService(service);
+            }
+
+            if (!request.getPayment().pay(booking.getTotalCents())) {
+                throw new Booking.BookingOperationException("Payment was declined");
+            }
+            reservationEngine.confirm(reservation);
+            confirmed = true;
+            request.getCustomer().addBooking(booking);
+            hotel.getEvents().bookingCreated(booking);
+            return booking;
+        } catch (Booking.BookingOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new Booking.BookingOperationException(e.getMessage(), e);
+        } finally {
+            if (!confirmed) {
+                reservationEngine.release(reservation);
+                if (redeemed != null) {
+                    SpecialCodeOffer.getRegistry().release(redeemed.getPromoCode(), request.getCustomer().getEmail());
+                }
+            }
+        }
+    }
+
+    private void sendConfirmation(DomainEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() != DomainEvent.Type.BOOKING_CREATED) {
+            return;
+        }
+        Booking booking = event.getBooking();
+        Email_Notification notification = new Email_Notification();
+        notification.set_message("Thank you for your booking!\n" +
+            "Booking ID: " + booking.getBookingId() + "\n" +
+            "Room: " + booking.getRoom().getRoomNumber() + " (" + booking.getRoom().getType() + ")\n" +
+            "Check-in: " + booking.getStayStart() + "\n" +
+            "Check-out: " + booking.getStayEnd() + "\n" +
+            "Total: " + Money.format(booking.getTotalCents()));
+        notification.send();
+    }
+
+    public void shutdown() {
+        notifications.cancel();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+class BookingRequest {
+    private final Customer customer;
+    private final RoomType roomType;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private final Offer promoOffer;
+    private final List<Service> services;
+    private final Payment payment;
+
+    public BookingRequest(Customer customer, RoomType roomType, LocalDate checkIn, LocalDate checkOut,
+                          Offer promoOffer, List<Service> services, Payment payment) throws IllegalArgumentException {
+        if (customer == null) throw new IllegalArgumentException("Customer cannot be null");
+        if (roomType == null) throw new IllegalArgumentException("Please select a room type");
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut)) throw new IllegalArgumentException("Check-in date must be before check-out date");
+        String invalid = Hotel.checkStay(checkIn, checkOut);
+        if (invalid != null) throw new IllegalArgumentException(invalid);
+        if (payment == null) throw new IllegalArgumentException("Please select a payment method");
+        this.customer = customer;
+        this.roomType = roomType;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.promoOffer = promoOffer;
+        this.services = services == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(services));
+        this.payment = payment;
+    }
+
+    public Customer getCustomer() { return customer; }
+    public RoomType getRoomType() { return roomType; }
+    public LocalDate getCheckIn() { return checkIn; }
+    public LocalDate getCheckOut() { return checkOut; }
+    public Offer getPromoOffer() { return promoOffer; }
+    public List<Service> getServices() { return services; }
+    public Payment getPayment() { return payment; }
+}
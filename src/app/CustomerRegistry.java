@@ -0,0 +1,63 @@
+package app;
+
+
+
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ One Customer per email address.
+ Emails are normalized (trimmed, lower-cased) and indexed in a
+ ConcurrentHashMap, so a repeat guest gets their existing Customer, and the
+ booking history on it, in O(1) instead of a fresh object per form
+ submission. Safe for concurrent use.
+*/
+public class CustomerRegistry {
+    private final ConcurrentHashMap<String, Customer> byEmail = new ConcurrentHashMap<>();
+
+    /*
+     Guest checkout: an unknown email gets an account without a password, it
+     cannot be logged into until one is set.
+    */
+    public Customer findOrCreate(String name, String email) throws InvalidEmailException, InvalidPasswordException {
+        return findOrCreate(name, email, null);
+    }
+
+    // password is only used when the customer is new; may be null for a guest
+    public Customer findOrCreate(String name, String email, String password)
+            throws InvalidEmailException, InvalidPasswordException {
+        if (email == null || email.trim().isEmpty()) throw new InvalidEmailException("Invalid email format: " + email);
+        String key = normalize(email);
+        Customer existing = byEmail.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Customer created = password == null ? new Customer(name, email.trim()) : new Customer(name, email.trim(), password);
+        Customer raced = byEmail.putIfAbsent(key, created);
+        return raced != null ? raced : created;
+    }
+
+    public Customer find(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return null;
+        }
+        return byEmail.get(normalize(email));
+    }
+
+    public List<Booking> getBookings(String email) {
+        Customer customer = find(email);
+        return customer == null ? Collections.emptyList() : customer.getBookings();
+    }
+
+    public int size() {
+        return byEmail.size();
+    }
+
+    static String normalize(String email) throws IllegalArgumentException {
+        if (email == null || email.trim().isEmpty()) throw new IllegalArgumentException("There is no Email");
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,77 @@
+package app;
+
+
+
+
+/*
+ One slot of the DomainEventBus ring. Slots are allocated once with the
+ ring and overwritten in place by every publish, so an event is only valid
+ inside Handler.onEvent; a handler that needs it later must copy what it
+ uses (the booking, room, review or offer references stay valid).
+ Which fields are set depends on the type:
+   BOOKING_CREATED, BOOKING_CANCELLED  booking, room
+   ROOM_ADDED                          room
+   PRICE_CHANGED                       room, oldPriceCents, newPriceCents
+   REVIEW_ADDED                        review
+   OFFER_ACTIVATED                     offer
+*/
+public final class DomainEvent {
+    public enum Type {
+        BOOKING_CREATED,
+        BOOKING_CANCELLED,
+        ROOM_ADDED,
+        PRICE_CHANGED,
+        REVIEW_ADDED,
+        OFFER_ACTIVATED
+    }
+
+    private Type type;
+    private long timestamp;
+    private Booking booking;
+    private Room room;
+    private Review review;
+    private Offer offer;
+    private long oldPriceCents;
+    private long newPriceCents;
+
+    DomainEvent() {
+    }
+
+    // Written only by the publisher that claimed the slot, before it is published
+    void set(Type type, Booking booking, Room room, Review review, Offer offer, long oldPriceCents, long newPriceCents) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.booking = booking;
+        this.room = room;
+        this.review = review;
+        this.offer = offer;
+        this.oldPriceCents = oldPriceCents;
+        this.newPriceCents = newPriceCents;
+    }
+
+    public Type getType() { return type; }
+    public long getTimestamp() { return timestamp; }
+    public Booking getBooking() { return booking; }
+    public Room getRoom() { return room; }
+    public Review getReview() { return review; }
+    public Offer getOffer() { return offer; }
+    public long getOldPriceCents() { return oldPriceCents; }
+    public long getNewPriceCents() { return newPriceCents; }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case BOOKING_CREATED:
+            case BOOKING_CANCELLED:
+                return type + " booking " + booking.getBookingId() + " room #" + room.getRoomNumber();
+            case ROOM_ADDED:
+                return type + " room #" + room.getRoomNumber();
+            case PRICE_CHANGED:
+                return type + " room #" + room.getRoomNumber() + " " + Money.format(oldPriceCents) + " -> " + Money.format(newPriceCents);
+            case REVIEW_ADDED:
+                return type + " review " + review.getReviewId();
+            default:
+                return type + " " + offer.getClass().getSimpleName();
+        }
+    }
+}
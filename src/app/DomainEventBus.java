@@ -0,0 +1,259 @@
+package app;
+
+
+
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ In-process stream of domain events (DomainEvent.Type) on a preallocated
+ ring buffer, Disruptor style.
+ - Publishing claims the next sequence with one atomic increment, fills the
+   slot for it in place (no allocation) and marks the slot published. Each
+   slot has a single writer, the publisher that claimed it; each consumer
+   sequence has a single writer, its consumer thread.
+ - Every subscriber has its own daemon thread and sequence. It takes all
+   events published since it last looked as one batch, so a slow subscriber
+   catches up in large batches instead of one handoff per event, and never
+   delays the publisher or the other subscribers.
+ - Backpressure: a publisher that would overwrite a slot the slowest
+   subscriber has not read yet waits until it has. The ring size bounds the
+   memory and how far any subscriber can fall behind.
+ Handlers run on the subscriber's thread; they must not publish to the same
+ bus (a full ring would wait on itself). An exception from a handler is
+ counted (getHandlerFailures) and passed to the ErrorHandler, if any; the
+ subscriber carries on with the next event.
+*/
+public class DomainEventBus {
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final String name;
+    private final DomainEvent[] ring;
+    private final AtomicLongArray published; // sequence last published into each slot
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Object gating = new Object(); // orders subscribing against gatingCache refreshes
+    private volatile long gatingCache = -1; // slowest subscriber's sequence, as last seen by a publisher
+    private final AtomicLong handlerFailures = new AtomicLong();
+    private volatile ErrorHandler errorHandler;
+    private volatile boolean stopped;
+
+    public DomainEventBus(String name, int capacity) {
+        if (capacity <= 0 || capacity > (1 << 20)) throw new IllegalArgumentException("Capacity must be between 1 and 2^20");
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1; // power of two so a mask picks the slot
+        }
+        this.name = name;
+        this.ring = new DomainEvent[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            ring[i] = new DomainEvent();
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+    }
+
+    public interface Handler {
+        // endOfBatch is true for the last event currently available, a good point to flush
+        void onEvent(DomainEvent event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    public interface ErrorHandler {
+        // Called on the subscriber's thread; the event is only valid during the call
+        void onError(String subscriber, DomainEvent event, long sequence, Exception e);
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /*
+     The subscriber sees events published from now on. Its sequence starts
+     at the slowest existing one, not at the last claimed: a publisher may
+     still be writing on the strength of a gatingCache taken before this
+     call, and slots up to the slowest sequence are the only ones it can
+     overwrite. The registration and the gatingCache refresh happen under
+     the lock publishers take to refresh it, so none can miss the new
+     subscriber.
+    */
+    public Subscription subscribe(String subscriber, Handler handler) {
+        if (handler == null) throw new IllegalArgumentException("Handler cannot be null");
+        if (stopped) throw new IllegalStateException("Event bus " + name + " is stopped");
+        Subscription subscription;
+        synchronized (gating) {
+            long from = claimed.get();
+            long slowest = slowestSequence(from);
+            subscription = new Subscription(subscriber, handler, slowest, from);
+            subscriptions.add(subscription);
+            gatingCache = slowest;
+        }
+        subscription.thread.start();
+        return subscription;
+    }
+
+    public void bookingCreated(Booking booking) {
+        publish(DomainEvent.Type.BOOKING_CREATED, booking, booking.getRoom(), null, null, 0, 0);
+    }
+
+    public void bookingCancelled(Booking booking) {
+        publish(DomainEvent.Type.BOOKING_CANCELLED, booking, booking.getRoom(), null, null, 0, 0);
+    }
+
+    public void roomAdded(Room room) {
+        publish(DomainEvent.Type.ROOM_ADDED, null, room, null, null, 0, 0);
+    }
+
+    public void priceChanged(Room room, long oldPriceCents, long newPriceCents) {
+        publish(DomainEvent.Type.PRICE_CHANGED, null, room, null, null, oldPriceCents, newPriceCents);
+    }
+
+    public void reviewAdded(Review review) {
+        publish(DomainEvent.Type.REVIEW_ADDED, null, null, review, null, 0, 0);
+    }
+
+    public void offerActivated(Offer offer) {
+        publish(DomainEvent.Type.OFFER_ACTIVATED, null, null, null, offer, 0, 0);
+    }
+
+    // Events published so far
+    public long getPublishedCount() {
+        return claimed.get() + 1;
+    }
+
+    // Exceptions thrown by handlers so far
+    public long getHandlerFailures() {
+        return handlerFailures.get();
+    }
+
+    // Stops the subscribers once they have handled what is already published
+    public void shutdown() {
+        stopped = true;
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+    }
+
+    private void publish(DomainEvent.Type type, Booking booking, Room room, Review review, Offer offer,
+                         long oldPriceCents, long newPriceCents) {
+        if (stopped) {
+            return; // shutting down, nobody is left to read it
+        }
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - ring.length;
+        if (wrapPoint > gatingCache) {
+            while (!refreshGating(wrapPoint, sequence - 1)) {
+                if (stopped) {
+                    return;
+                }
+                LockSupport.parkNanos(1_000); // backpressure: the slot is still unread
+            }
+        }
+        int slot = (int) (sequence & mask);
+        ring[slot].set(type, booking, room, review, offer, oldPriceCents, newPriceCents);
+        published.set(slot, sequence);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.idle) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    // True once every subscriber has read past wrapPoint
+    private boolean refreshGating(long wrapPoint, long limit) {
+        synchronized (gating) {
+            long slowest = slowestSequence(limit);
+            if (wrapPoint > slowest) {
+                return false;
+            }
+            gatingCache = slowest;
+            return true;
+        }
+    }
+
+    private long slowestSequence(long limit) {
+        long slowest = limit;
+        for (Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.sequence);
+        }
+        return slowest;
+    }
+
+    public final class Subscription {
+        private final String subscriber;
+        private final Handler handler;
+        private final Thread thread;
+        private final long skipUntil; // events up to here predate the subscription
+        private volatile long sequence; // last sequence handled
+        private volatile boolean idle;
+        private volatile boolean cancelled;
+
+        private Subscription(String subscriber, Handler handler, long sequence, long skipUntil) {
+            this.subscriber = subscriber;
+            this.handler = handler;
+            this.sequence = sequence;
+            this.skipUntil = skipUntil;
+            this.thread = new Thread(this::run, name + "-" + subscriber);
+            thread.setDaemon(true);
+        }
+
+        // How far this subscriber is behind the publishers
+        public long getLag() {
+            return claimed.get() - sequence;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            long next = sequence + 1;
+            while (true) {
+                long available = next - 1;
+                while (published.get((int) ((available + 1) & mask)) == available + 1) {
+                    available++;
+                }
+                if (available < next) {
+                    if (cancelled) {
+                        break;
+                    }
+                    idle = true;
+                    if (published.get((int) (next & mask)) != next && !cancelled) { // re-check after raising the flag
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                for (long s = Math.max(next, skipUntil + 1); s <= available; s++) {
+                    DomainEvent event = ring[(int) (s & mask)];
+                    try {
+                        handler.onEvent(event, s, s == available);
+                    } catch (Exception e) {
+                        failed(event, s, e);
+                    }
+                }
+                sequence = available; // frees the slots for publishers
+                next = available + 1;
+            }
+            subscriptions.remove(this);
+        }
+
+        private void failed(DomainEvent event, long s, Exception e) {
+            handlerFailures.incrementAndGet();
+            ErrorHandler onError = errorHandler;
+            if (onError != null) {
+                try {
+                    onError.onError(subscriber, event, s, e);
+                } catch (RuntimeException ignored) {
+                    // a failing error handler must not stop the subscriber
+                }
+            }
+        }
+    }
+}
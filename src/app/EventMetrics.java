@@ -0,0 +1,34 @@
+package app;
+
+
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ Event counters fed by a DomainEventBus subscription: events per type and
+ the net booked revenue (created minus cancelled). Updated on the bus
+ thread only, read from anywhere.
+*/
+class EventMetrics implements DomainEventBus.Handler {
+    private final AtomicLongArray counts = new AtomicLongArray(DomainEvent.Type.values().length);
+    private volatile long bookedCents;
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        counts.incrementAndGet(event.getType().ordinal());
+        if (event.getType() == DomainEvent.Type.BOOKING_CREATED) {
+            bookedCents += event.getBooking().getTotalCents();
+        } else if (event.getType() == DomainEvent.Type.BOOKING_CANCELLED) {
+            bookedCents -= event.getBooking().getTotalCents();
+        }
+    }
+
+    long getCount(DomainEvent.Type type) {
+        return counts.get(type.ordinal());
+    }
+
+    long getBookedCents() {
+        return bookedCents;
+    }
+}
@@ -0,0 +1,90 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ A block of rooms held together for one group (conference, wedding...).
+ Created by ReservationEngine.reserveGroup: either every requested room is
+ held or none is.
+*/
+public class GroupReservation {
+    private final ReservationEngine engine;
+    private final List<Reservation> reservations;
+
+    GroupReservation(ReservationEngine engine, List<Reservation> reservations) {
+        this.engine = engine;
+        this.reservations = Collections.unmodifiableList(new ArrayList<>(reservations));
+    }
+
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    public int size() {
+        return reservations.size();
+    }
+
+    ReservationEngine getEngine() {
+        return engine;
+    }
+}
+
+class RoomRequest {
+    private final RoomType type;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int count;
+
+    public RoomRequest(RoomType type, LocalDate from, LocalDate to, int count) throws IllegalArgumentException {
+        if (type == null) throw new IllegalArgumentException("Room type cannot be null");
+        if (from == null || to == null || !from.isBefore(to)) throw new IllegalArgumentException("Check-in date must be before check-out date");
+        String invalid = Hotel.checkStay(from, to);
+        if (invalid != null) throw new IllegalArgumentException(invalid);
+        if (count <= 0) throw new IllegalArgumentException("Room count must be positive");
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    public RoomType getType() { return type; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public int getCount() { return count; }
+
+    @Override
+    public String toString() {
+        return count + " x " + type + " " + from + " to " + to;
+    }
+}
+
+class GroupReservationResult {
+    private final ReservationStatus status;
+    private final GroupReservation group;
+    private final String message;
+
+    private GroupReservationResult(ReservationStatus status, GroupReservation group, String message) {
+        this.status = status;
+        this.group = group;
+        this.message = message;
+    }
+
+    static GroupReservationResult reserved(GroupReservation group) {
+        return new GroupReservationResult(ReservationStatus.RESERVED, group, "Reserved " + group.size() + " rooms");
+    }
+
+    static GroupReservationResult failed(ReservationStatus status, String message) {
+        return new GroupReservationResult(status, null, message);
+    }
+
+    public boolean isReserved() { return status == ReservationStatus.RESERVED; }
+    public ReservationStatus getStatus() { return status; }
+    public GroupReservation getGroup() { return group; }
+    public String getMessage() { return message; }
+}
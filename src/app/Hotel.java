@@ -3,49 +3,257 @@ package app;
 
 
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 /**
  *
  * @author dell
+ *
+ * Safe for concurrent use. Mutations take the write lock; queries run as
+ * optimistic reads over concurrent collections and only fall back to the
+ * read lock when a writer changed the hotel while they were running.
  */
 public class Hotel {
-     private List<Room> rooms;
-    private List<Offer> offers;
+    public static final int MAX_REVIEW_PAGE_SIZE = 100;
+    public static final int MAX_STAY_NIGHTS = 90;
+    public static final int BOOKING_HORIZON_DAYS = 730; // how far from today a stay may start or end
+
+     private Map<Integer, Room> rooms; // keyed by room number
+    private Set<Offer> offers;
     private List<Review> reviews;
 
+    // Secondary room indexes, maintained by addRoom/removeRoom and price changes
+    private final EnumMap<RoomType, NavigableMap<Long, Set<Room>>> roomsByType;
+    private final NavigableMap<Long, Set<Room>> roomsByPrice; // keyed by price in cents
+    private final NavigableMap<Integer, Set<Room>> roomsByCapacity;
+
+    private final OfferResolver offerResolver = new OfferResolver(); // seasonal offers by date
+    private final DomainEventBus events = new DomainEventBus("hotel", 1024);
+    private final OfferScheduler offerScheduler = new OfferScheduler(events::offerActivated); // flips them on and off
+    private final CustomerRegistry customerRegistry = new CustomerRegistry();
+    private final ReviewAggregate reviewTotals = new ReviewAggregate();
+    private final EnumMap<RoomType, ReviewAggregate> reviewTotalsByType = new EnumMap<>(RoomType.class);
+    private final ReviewIndex reviewIndex = new ReviewIndex(); // full-text search over comments
+    private final ConcurrentSkipListMap<ReviewCursor, Review> reviewFeed = new ConcurrentSkipListMap<>(); // newest first
+
+    private final List<AvailabilityListener> availabilityListeners = new CopyOnWriteArrayList<>();
+
+    private final StampedLock lock = new StampedLock();
+
     public Hotel() {
-        this.rooms = new ArrayList<>();
-        this.offers = new ArrayList<>();
+        this.rooms = new ConcurrentHashMap<>();
+        this.offers = ConcurrentHashMap.newKeySet();
         this.reviews = new ArrayList<>();
+        this.roomsByType = new EnumMap<>(RoomType.class);
+        for (RoomType type : RoomType.values()) {
+            roomsByType.put(type, new ConcurrentSkipListMap<>());
+        }
+        this.roomsByPrice = new ConcurrentSkipListMap<>();
+        this.roomsByCapacity = new ConcurrentSkipListMap<>();
+        for (RoomType type : RoomType.values()) {
+            reviewTotalsByType.put(type, new ReviewAggregate());
+        }
     }
 
     // Room-related methods
     public List<Room> searchAvailableRooms() throws HotelOperationException {
         try {
+            return read(() -> {
+                List<Room> availableRooms = new ArrayList<>();
+                for (Room room : rooms.values()) {
+                    if (room.isAvailable()) {
+                        availableRooms.add(room);
+                    }
+                }
+                return availableRooms;
+            });
+        } catch (Exception e) {
+            throw new HotelOperationException("Error searching for available rooms", e);
+        }
+    }
+
+    public List<Room> searchAvailableRooms(LocalDate from, LocalDate to) throws HotelOperationException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new HotelOperationException("Check-in date must be before check-out date");
+        }
+        String invalid = checkStay(from, to);
+        if (invalid != null) {
+            throw new HotelOperationException(invalid);
+        }
+        try {
+            long fromDay = from.toEpochDay();
+            long toDay = to.toEpochDay();
+            return read(() -> {
+                List<Room> availableRooms = new ArrayList<>();
+                for (Room room : rooms.values()) {
+                    if (room.isAvailable(fromDay, toDay)) {
+                        availableRooms.add(room);
+                    }
+                }
+                return availableRooms;
+            });
+        } catch (Exception e) {
+            throw new HotelOperationException("Error searching for available rooms", e);
+        }
+    }
+
+    public List<Room> searchAvailableRooms(RoomType type) throws HotelOperationException {
+        if (type == null) {
+            throw new HotelOperationException("Room type cannot be null");
+        }
+        return read(() -> {
             List<Room> availableRooms = new ArrayList<>();
-            for (Room room : rooms) {
-                if (room.isAvailable()) {
-                    availableRooms.add(room);
+            for (Set<Room> bucket : roomsByType.get(type).values()) {
+                for (Room room : bucket) {
+                    if (room.isAvailable()) {
+                        availableRooms.add(room);
+                    }
                 }
             }
             return availableRooms;
-        } catch (Exception e) {
-            throw new HotelOperationException("Error searching for available rooms", e);
+        });
+    }
+
+    // Rooms of the given type that are free for the whole stay, cheapest first
+    public List<Room> searchAvailableRooms(RoomType type, LocalDate from, LocalDate to) throws HotelOperationException {
+        if (type == null || from == null || to == null || !from.isBefore(to)) {
+            throw new HotelOperationException("A room type and a valid date range are required");
+        }
+        String invalid = checkStay(from, to);
+        if (invalid != null) {
+            throw new HotelOperationException(invalid);
         }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        return read(() -> {
+            List<Room> availableRooms = new ArrayList<>();
+            for (Set<Room> bucket : roomsByType.get(type).values()) {
+                for (Room room : bucket) {
+                    if (room.isAvailable(fromDay, toDay)) {
+                        availableRooms.add(room);
+                    }
+                }
+            }
+            return availableRooms;
+        });
+    }
+
+    // Cheapest room of the given type that is free for the whole stay, or null
+    public Room findAvailableRoom(String type, LocalDate from, LocalDate to) throws HotelOperationException {
+        if (type == null || from == null || to == null || !from.isBefore(to)) {
+            throw new HotelOperationException("A room type and a valid date range are required");
+        }
+        String invalid = checkStay(from, to);
+        if (invalid != null) {
+            throw new HotelOperationException(invalid);
+        }
+        RoomType roomType;
+        try {
+            roomType = RoomType.fromLabel(type);
+        } catch (IllegalArgumentException e) {
+            throw new HotelOperationException(e.getMessage(), e);
+        }
+        return findAvailableRoom(roomType, from, to);
+    }
+
+    public Room findAvailableRoom(RoomType roomType, LocalDate from, LocalDate to) throws HotelOperationException {
+        if (roomType == null || from == null || to == null || !from.isBefore(to)) {
+            throw new HotelOperationException("A room type and a valid date range are required");
+        }
+        String invalid = checkStay(from, to);
+        if (invalid != null) {
+            throw new HotelOperationException(invalid);
+        }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        return read(() -> {
+            for (Set<Room> bucket : roomsByType.get(roomType).values()) {
+                for (Room room : bucket) {
+                    if (room.isAvailable(fromDay, toDay)) {
+                        return room;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    public Room getRoom(int roomNumber) {
+        return rooms.get(roomNumber);
+    }
+
+    public List<Room> getRoomsByType(RoomType type) {
+        return read(() -> {
+            List<Room> result = new ArrayList<>();
+            if (type != null) {
+                roomsByType.get(type).values().forEach(result::addAll);
+            }
+            return result;
+        });
+    }
+
+    /*
+     Rooms priced at or below maxPriceCents with at least minCapacity beds, cheapest first.
+     type may be null to search every type. Only the matching price range is
+     walked; the capacity test is a field compare on rooms already in range.
+    */
+    public List<Room> searchRooms(RoomType type, long maxPriceCents, int minCapacity) {
+        NavigableMap<Long, Set<Room>> byPrice = type == null ? roomsByPrice : roomsByType.get(type);
+        return read(() -> {
+            List<Room> result = new ArrayList<>();
+            for (Set<Room> bucket : byPrice.headMap(maxPriceCents, true).values()) {
+                for (Room room : bucket) {
+                    if (room.getCapacity() >= minCapacity) {
+                        result.add(room);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    public List<Room> getRoomsWithCapacity(int minCapacity) {
+        return read(() -> {
+            List<Room> result = new ArrayList<>();
+            roomsByCapacity.tailMap(minCapacity, true).values().forEach(result::addAll);
+            return result;
+        });
     }
 
     public void addRoom(Room room) throws InvalidRoomException, HotelOperationException {
         if (room == null) {
             throw new InvalidRoomException("Room cannot be null");
         }
+        long stamp = lock.writeLock();
         try {
-            if (rooms.contains(room)) {
-                throw new InvalidRoomException("Room already exists in the hotel");
+            if (rooms.containsKey(room.getRoomNumber())) {
+                throw new InvalidRoomException("Room #" + room.getRoomNumber() + " already exists in the hotel");
             }
-            rooms.add(room);
-        } catch (Exception e) {
-            throw new HotelOperationException("Error adding room", e);
+            try {
+                rooms.put(room.getRoomNumber(), room);
+                indexRoom(room, room.getPriceCents());
+                room.setHotel(this);
+            } catch (Exception e) {
+                throw new HotelOperationException("Error adding room", e);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        events.roomAdded(room);
+        if (room.isAvailable()) {
+            notifyAvailability(room, true);
         }
     }
 
@@ -53,12 +261,93 @@ public class Hotel {
         if (room == null) {
             throw new RoomNotFoundException("Room cannot be null");
         }
+        Room existing;
+        long stamp = lock.writeLock();
         try {
-            if (!rooms.remove(room)) {
+            existing = rooms.get(room.getRoomNumber());
+            if (existing == null) {
                 throw new RoomNotFoundException("Room not found in the hotel");
             }
-        } catch (Exception e) {
-            throw new HotelOperationException("Error removing room", e);
+            try {
+                rooms.remove(existing.getRoomNumber());
+                unindexRoom(existing, existing.getPriceCents());
+                existing.setHotel(null);
+            } catch (Exception e) {
+                throw new HotelOperationException("Error removing room", e);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (existing.isAvailable()) {
+            notifyAvailability(existing, false);
+        }
+    }
+
+    /*
+     Availability events, so views apply one room at a time instead of
+     re-running searchAvailableRooms() after every booking.
+    */
+    public void addAvailabilityListener(AvailabilityListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null");
+        availabilityListeners.add(listener);
+    }
+
+    public void removeAvailabilityListener(AvailabilityListener listener) {
+        availabilityListeners.remove(listener);
+    }
+
+    // Called by Room after a change that flipped isAvailable()
+    void fireAvailabilityChanged(Room room, boolean available) {
+        notifyAvailability(room, available);
+    }
+
+    private void notifyAvailability(Room room, boolean available) {
+        for (AvailabilityListener listener : availabilityListeners) {
+            listener.availabilityChanged(room, available);
+        }
+    }
+
+    // Called by Room.setPrice so the price-sorted indexes follow the new price
+    void updateRoomPrice(Room room, long newPriceCents) {
+        long oldPriceCents;
+        long stamp = lock.writeLock();
+        try {
+            oldPriceCents = room.getPriceCents();
+            if (rooms.get(room.getRoomNumber()) != room) {
+                room.applyPrice(newPriceCents); // removed in the meantime, nothing to re-index
+                return;
+            }
+            unindexRoom(room, oldPriceCents);
+            room.applyPrice(newPriceCents);
+            indexRoom(room, newPriceCents);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (oldPriceCents != newPriceCents) {
+            events.priceChanged(room, oldPriceCents, newPriceCents);
+        }
+    }
+
+    private void indexRoom(Room room, long priceCents) {
+        addToIndex(roomsByType.get(room.getRoomType()), priceCents, room);
+        addToIndex(roomsByPrice, priceCents, room);
+        addToIndex(roomsByCapacity, room.getCapacity(), room);
+    }
+
+    private void unindexRoom(Room room, long priceCents) {
+        removeFromIndex(roomsByType.get(room.getRoomType()), priceCents, room);
+        removeFromIndex(roomsByPrice, priceCents, room);
+        removeFromIndex(roomsByCapacity, room.getCapacity(), room);
+    }
+
+    private static <K> void addToIndex(Map<K, Set<Room>> index, K key, Room room) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(room);
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Room>> index, K key, Room room) {
+        Set<Room> bucket = index.get(key);
+        if (bucket != null && bucket.remove(room) && bucket.isEmpty()) {
+            index.remove(key);
         }
     }
 
@@ -67,13 +356,25 @@ public class Hotel {
         if (offer == null) {
             throw new InvalidOfferException("Offer cannot be null");
         }
+        long stamp = lock.writeLock();
         try {
             if (offers.contains(offer)) {
                 throw new InvalidOfferException("Offer already exists in the hotel");
             }
-            offers.add(offer);
-        } catch (Exception e) {
-            throw new HotelOperationException("Error adding offer", e);
+            try {
+                offers.add(offer);
+                if (offer instanceof SeasonalOffer) {
+                    offerResolver.add((SeasonalOffer) offer);
+                    offerScheduler.track((SeasonalOffer) offer);
+                }
+            } catch (Exception e) {
+                throw new HotelOperationException("Error adding offer", e);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (offer.isActive()) {
+            events.offerActivated(offer);
         }
     }
 
@@ -81,12 +382,22 @@ public class Hotel {
         if (offer == null) {
             throw new OfferNotFoundException("Offer cannot be null");
         }
+        long stamp = lock.writeLock();
         try {
-            if (!offers.remove(offer)) {
+            if (!offers.contains(offer)) {
                 throw new OfferNotFoundException("Offer not found in the hotel");
             }
-        } catch (Exception e) {
-            throw new HotelOperationException("Error removing offer", e);
+            try {
+                offers.remove(offer);
+                if (offer instanceof SeasonalOffer) {
+                    offerResolver.remove((SeasonalOffer) offer);
+                    offerScheduler.untrack((SeasonalOffer) offer);
+                }
+            } catch (Exception e) {
+                throw new HotelOperationException("Error removing offer", e);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -95,10 +406,177 @@ public class Hotel {
         if (review == null) {
             throw new InvalidReviewException("Review cannot be null");
         }
+        long stamp = lock.writeLock();
         try {
             reviews.add(review);
+            review.setHotel(this);
+            aggregate(review, true);
+            reviewIndex.add(review);
+            reviewFeed.put(ReviewCursor.of(review), review);
         } catch (Exception e) {
             throw new HotelOperationException("Error adding review", e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        events.reviewAdded(review);
+    }
+
+    // Called by Review.setRating/setDate so the aggregates follow the change
+    void updateReview(Review review, int rating, Date date) {
+        long stamp = lock.writeLock();
+        try {
+            aggregate(review, false);
+            reviewFeed.remove(ReviewCursor.of(review));
+            review.apply(rating, date);
+            aggregate(review, true);
+            reviewFeed.put(ReviewCursor.of(review), review);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Called by Review.setComment so the search index follows the new text
+    void updateReviewComment(Review review, String comment) {
+        long stamp = lock.writeLock();
+        try {
+            reviewIndex.remove(review);
+            review.applyComment(comment);
+            reviewIndex.add(review);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     Reviews whose comment matches the query, best first (see ReviewIndex).
+     Only the postings of the query terms are read, not every comment.
+    */
+    public List<Review> searchReviews(String query, int limit) {
+        return reviewIndex.search(query, limit);
+    }
+
+    /*
+     Review feed, newest first, in pages of at most pageSize reviews
+     (1..MAX_REVIEW_PAGE_SIZE).
+     after == null starts at the newest review; otherwise the page holds the
+     reviews following that cursor. Seeking is O(log n) in the skip list, so
+     a page costs the same wherever it is in the feed.
+    */
+    public ReviewPage getReviewPage(ReviewCursor after, int pageSize) {
+        checkPageSize(pageSize);
+        return read(() -> {
+            NavigableMap<ReviewCursor, Review> tail = after == null ? reviewFeed : reviewFeed.tailMap(after, false);
+            List<Review> page = new ArrayList<>(Math.min(pageSize, reviewFeed.size()));
+            ReviewCursor first = null;
+            ReviewCursor last = null;
+            boolean more = false;
+            for (Map.Entry<ReviewCursor, Review> entry : tail.entrySet()) {
+                if (page.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                if (first == null) first = entry.getKey();
+                last = entry.getKey();
+                page.add(entry.getValue());
+            }
+            boolean newer = first == null ? after != null : reviewFeed.lowerKey(first) != null;
+            return new ReviewPage(page, newer ? (first == null ? after : first) : null, more ? last : null);
+        });
+    }
+
+    // The page of reviews just newer than before, for scrolling back up
+    public ReviewPage getReviewPageBefore(ReviewCursor before, int pageSize) {
+        if (before == null) throw new IllegalArgumentException("Cursor cannot be null");
+        checkPageSize(pageSize);
+        return read(() -> {
+            List<Review> page = new ArrayList<>(Math.min(pageSize, reviewFeed.size()));
+            ReviewCursor first = null;
+            ReviewCursor last = null;
+            boolean more = false;
+            for (Map.Entry<ReviewCursor, Review> entry : reviewFeed.headMap(before, false).descendingMap().entrySet()) {
+                if (page.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                if (last == null) last = entry.getKey();
+                first = entry.getKey();
+                page.add(entry.getValue());
+            }
+            Collections.reverse(page);
+            boolean older = last == null || reviewFeed.higherKey(last) != null;
+            return new ReviewPage(page, more ? first : null, older ? (last == null ? before : last) : null);
+        });
+    }
+
+    /*
+     Why a stay of [from, to) cannot be booked, or null when it can: it
+     starts today or later, lasts at most MAX_STAY_NIGHTS nights and ends
+     within BOOKING_HORIZON_DAYS of today. Keeps the per-room occupancy
+     calendars to a bounded size.
+    */
+    static String checkStay(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (from.isBefore(today)) {
+            return "Check-in date cannot be in the past";
+        }
+        long nights = to.toEpochDay() - from.toEpochDay();
+        if (nights > MAX_STAY_NIGHTS) {
+            return "A stay can be at most " + MAX_STAY_NIGHTS + " nights";
+        }
+        if (to.isAfter(today.plusDays(BOOKING_HORIZON_DAYS))) {
+            return "Stays can only be booked up to " + BOOKING_HORIZON_DAYS + " days ahead";
+        }
+        return null;
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_REVIEW_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_REVIEW_PAGE_SIZE);
+        }
+    }
+
+    private void aggregate(Review review, boolean add) {
+        ReviewAggregate byType = review.getRoomType() == null ? null : reviewTotalsByType.get(review.getRoomType());
+        if (add) {
+            reviewTotals.add(review.getRating(), review.getDate());
+            if (byType != null) byType.add(review.getRating(), review.getDate());
+        } else {
+            reviewTotals.remove(review.getRating(), review.getDate());
+            if (byType != null) byType.remove(review.getRating(), review.getDate());
+        }
+    }
+
+    // O(1): count, average, histogram and last-30-days figures over every review
+    public ReviewStats getReviewStats() {
+        long today = ReviewAggregate.today();
+        return read(() -> reviewTotals.snapshot(today));
+    }
+
+    public ReviewStats getReviewStats(RoomType type) {
+        if (type == null) throw new IllegalArgumentException("Room type cannot be null");
+        long today = ReviewAggregate.today();
+        return read(() -> reviewTotalsByType.get(type).snapshot(today));
+    }
+
+    // Runs a query without taking the lock and only repeats it under the read
+    // lock if a writer got in while it ran (or it tripped over a half-done write)
+    private <T> T read(Supplier<T> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // fall through to the locked read
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
@@ -138,15 +616,38 @@ public class Hotel {
 
     // Getters
     public List<Room> getRooms() {
-        return new ArrayList<>(rooms); // Return defensive copy
+        return read(() -> new ArrayList<>(rooms.values())); // Return defensive copy
+    }
+
+    public CustomerRegistry getCustomerRegistry() {
+        return customerRegistry;
+    }
+
+    public OfferResolver getOfferResolver() {
+        return offerResolver;
+    }
+
+    // Stops the offer timers; call when the hotel is no longer used
+    public void shutdown() {
+        offerScheduler.shutdown();
+        events.shutdown();
+    }
+
+    /*
+     Domain events of this hotel (bookings, rooms, prices, reviews, offers).
+     Views, notifications and metrics subscribe here instead of being called
+     from the code that makes the change.
+    */
+    public DomainEventBus getEvents() {
+        return events;
     }
 
     public List<Offer> getOffers() {
-        return new ArrayList<>(offers); // Return defensive copy
+        return read(() -> new ArrayList<>(offers)); // Return defensive copy
     }
 
     public List<Review> getReviews() {
-        return new ArrayList<>(reviews); // Return defensive copy
+        return read(() -> new ArrayList<>(reviews)); // Return defensive copy
     }
 }
 
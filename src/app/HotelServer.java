@@ -0,0 +1,582 @@
+package app;
+
+
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Headless entry point: serves the same Hotel/Booking domain over HTTP using
+ the JDK's built-in server, one (virtual when available) thread per request.
+
+   POST   /sessions        username (admin name or customer email), password -> token
+   DELETE /sessions        *
+   POST   /customers       name, email -> emails a verification code
+   POST   /customers/verify   email, code, password -> sets the account's password
+   GET    /rooms?from=2026-01-10&to=2026-01-12[&type=Suite]
+   POST   /bookings        name, email, type, from, to, paypalEmail[, promoCode] -> booking + cancelToken
+   DELETE /bookings/{id}   cancelToken, or * booking's customer or admin
+   GET    /reviews?q=clean+pool[&limit=20]   ranked by comment relevance
+   GET    /reviews[?after=<cursor>&size=20]  without q: same as /reviews/feed
+   POST   /reviews         name, email, rating, comment[, roomType]
+   GET    /reviews/stats[?type=Suite]
+   GET    /reviews/feed[?after=<cursor>&size=20]   newest first, size 1-100, "next" is the following page's cursor
+   GET    /offers
+   POST   /offers/codes    * admin: code, discount[, maxUses, perCustomer, validFrom, validUntil]
+   GET    /metrics         * admin: domain event counts, net booked revenue, subscriber lag,
+                            failed event handlers
+
+ * needs "Authorization: Bearer <token>"; checking it is one map lookup
+ (SessionStore), the password hash is only computed by POST /sessions.
+ The admin account exists when -Dhotel.adminPassword is set.
+ Customers are created by their first booking or review as guests, without
+ a password: an anonymous request never sets one, or anyone could claim an
+ email. A password is set through POST /customers/verify with the code
+ mailed to the address, after which the customer can log in through
+ POST /sessions; bookings and reviews sent with their token are theirs
+ (name and email are then not needed).
+ Every booking also gets a random cancel token, returned once by
+ POST /bookings, so a guest can cancel without an account.
+ Request parameters are read from the query string or a form-encoded body,
+ responses are JSON. Ids are 64-bit (see IdGenerator) and sent as strings,
+ JavaScript numbers cannot hold them exactly.
+ Run with: java app.HotelServer [port]
+*/
+public class HotelServer {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final long VERIFICATION_TTL_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final int MAX_PENDING_VERIFICATIONS = 10_000;
+
+    private final Hotel hotel;
+    private final BookingService bookingService;
+    private final SessionStore sessions = new SessionStore(30, TimeUnit.MINUTES);
+    private final Admin admin;
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, String> cancelTokens = new ConcurrentHashMap<>();
+    private final Map<String, Verification> verifications = new ConcurrentHashMap<>(); // normalized email -> code mailed to it
+    private final ExecutorService executor;
+    private final HttpServer server;
+    private final EventMetrics metrics = new EventMetrics();
+    private final DomainEventBus.Subscription metricsSubscription;
+
+    public HotelServer(Hotel hotel, int port) throws IOException {
+        this(hotel, port, null);
+    }
+
+    // admin may be null: the admin-only endpoints then refuse every request
+    public HotelServer(Hotel hotel, int port, Admin admin) throws IOException {
+        this.hotel = hotel;
+        this.admin = admin;
+        this.bookingService = new BookingService(new ReservationEngine(hotel));
+        this.executor = VirtualThreads.newPerTaskExecutor("http");
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/sessions", exchange -> handle(exchange, this::sessions));
+        server.createContext("/customers", exchange -> handle(exchange, this::customers));
+        server.createContext("/rooms", exchange -> handle(exchange, this::rooms));
+        server.createContext("/bookings", exchange -> handle(exchange, this::bookings));
+        server.createContext("/reviews", exchange -> handle(exchange, this::reviews));
+        server.createContext("/offers", exchange -> handle(exchange, this::offers));
+        server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+        server.setExecutor(executor);
+        this.metricsSubscription = hotel.getEvents().subscribe("metrics", metrics);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Hotel server listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        bookingService.shutdown();
+        sessions.shutdown();
+        hotel.shutdown();
+        executor.shutdown();
+    }
+
+    // Handlers
+    private Response sessions(HttpExchange exchange, Map<String, String> params) throws Exception {
+        if ("DELETE".equals(exchange.getRequestMethod())) {
+            sessions.logout(bearerToken(exchange));
+            return Response.ok("{}");
+        }
+        requireMethod(exchange, "POST");
+        String username = required(params, "username");
+        User user = admin != null && (admin.getName().equals(username) || admin.getEmail().equalsIgnoreCase(username))
+                ? admin
+                : hotel.getCustomerRegistry().find(username);
+        String token = sessions.login(user, required(params, "password"));
+        return new Response(201, "{\"token\":" + quote(token) + "}");
+    }
+
+    private Response customers(HttpExchange exchange, Map<String, String> params) throws Exception {
+        requireMethod(exchange, "POST");
+        if (exchange.getRequestURI().getPath().equals("/customers/verify")) {
+            String email = required(params, "email");
+            String key = CustomerRegistry.normalize(email);
+            Verification verification = verifications.get(key);
+            if (verification == null || verification.isExpired() || !matches(required(params, "code"), verification.code)) {
+                throw new ForbiddenException("Invalid or expired verification code");
+            }
+            Customer customer = hotel.getCustomerRegistry().find(email);
+            customer.setPassword(params.get("password"));
+            customer.setName(verification.name); // a guest booking may have named the account first
+            verifications.remove(key, verification); // one use
+            return new Response(201, "{\"email\":" + quote(customer.getEmail()) + "}");
+        }
+        Customer customer = hotel.getCustomerRegistry().findOrCreate(required(params, "name"), required(params, "email"));
+        if (verifications.size() >= MAX_PENDING_VERIFICATIONS) {
+            verifications.values().removeIf(Verification::isExpired);
+            if (verifications.size() >= MAX_PENDING_VERIFICATIONS) {
+                throw new IllegalStateException("Too many pending registrations, try again later");
+            }
+        }
+        String code = newToken();
+        verifications.put(CustomerRegistry.normalize(customer.getEmail()),
+                new Verification(required(params, "name"), code, System.currentTimeMillis() + VERIFICATION_TTL_MILLIS));
+        Email_Notification notification = new Email_Notification();
+        notification.set_message("To: " + customer.getEmail() + "\n" +
+            "Your verification code is " + code + "\n" +
+            "Use it within 24 hours to set your password.");
+        notification.send();
+        return new Response(202, "{\"sent\":true}"); // the code only goes to the mailbox
+    }
+
+    private Response rooms(HttpExchange exchange, Map<String, String> params) throws Exception {
+        requireMethod(exchange, "GET");
+        LocalDate from = parseDate(params, "from");
+        LocalDate to = parseDate(params, "to");
+        List<Room> rooms = params.containsKey("type")
+                ? hotel.searchAvailableRooms(RoomType.fromLabel(params.get("type")), from, to)
+                : hotel.searchAvailableRooms(from, to);
+        StringBuilder json = new StringBuilder("[");
+        for (Room room : rooms) {
+            if (json.length() > 1) json.append(',');
+            appendRoom(json, room);
+        }
+        return Response.ok(json.append(']').toString());
+    }
+
+    private Response bookings(HttpExchange exchange, Map<String, String> params) throws Exception {
+        String path = exchange.getRequestURI().getPath();
+        if ("DELETE".equals(exchange.getRequestMethod())) {
+            long id = parseId(path);
+            String cancelToken = params.get("cancelToken");
+            if (cancelToken == null) {
+                User user = authenticate(exchange);
+                if (bookings.containsKey(id) && user != admin && user != bookings.get(id).getCustomer()) {
+                    throw new ForbiddenException("Only the booking's customer or an admin can cancel it");
+                }
+            } else if (!matches(cancelToken, cancelTokens.get(id))) {
+                throw new ForbiddenException("Invalid cancel token");
+            }
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                return Response.error(404, "Booking not found");
+            }
+            booking.cancel();
+            return Response.ok(bookingJson(booking));
+        }
+        requireMethod(exchange, "POST");
+        Customer customer = customerFor(exchange, params);
+        Offer promoOffer = null;
+        if (params.containsKey("promoCode")) {
+            String code = required(params, "promoCode");
+            promoOffer = SpecialCodeOffer.find(code);
+            if (promoOffer == null) {
+                return Response.error(400, SpecialCodeOffer.getRegistry().lookup(code, System.currentTimeMillis()).getMessage());
+            }
+        }
+        BookingRequest request = new BookingRequest(
+                customer,
+                RoomType.fromLabel(required(params, "type")),
+                parseDate(params, "from"),
+                parseDate(params, "to"),
+                promoOffer,
+                null,
+                new PayPalPayment(required(params, "paypalEmail")));
+        try {
+            Booking booking = bookingService.submit(request).get();
+            bookings.put(booking.getBookingId(), booking);
+            String cancelToken = newToken();
+            cancelTokens.put(booking.getBookingId(), cancelToken);
+            String json = bookingJson(booking);
+            return new Response(201, json.substring(0, json.length() - 1) + ",\"cancelToken\":" + quote(cancelToken) + "}");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private Response reviews(HttpExchange exchange, Map<String, String> params) throws Exception {
+        if (exchange.getRequestURI().getPath().equals("/reviews/stats")) {
+            requireMethod(exchange, "GET");
+            ReviewStats stats = params.containsKey("type")
+                    ? hotel.getReviewStats(RoomType.fromLabel(params.get("type")))
+                    : hotel.getReviewStats();
+            StringBuilder json = new StringBuilder();
+            json.append("{\"count\":").append(stats.getCount())
+                .append(",\"average\":").append(stats.getAverage())
+                .append(",\"histogram\":[");
+            for (int stars = 1; stars <= 5; stars++) {
+                json.append(stars > 1 ? "," : "").append(stats.getCount(stars));
+            }
+            json.append("],\"recentCount\":").append(stats.getRecentCount())
+                .append(",\"recentAverage\":").append(stats.getRecentAverage())
+                .append('}');
+            return Response.ok(json.toString());
+        }
+        if (exchange.getRequestURI().getPath().equals("/reviews/feed")) {
+            requireMethod(exchange, "GET");
+            return reviewFeed(params);
+        }
+        if ("POST".equals(exchange.getRequestMethod())) {
+            Customer customer = customerFor(exchange, params);
+            Review review = new Review(customer,
+                    params.containsKey("roomType") ? RoomType.fromLabel(required(params, "roomType")) : null,
+                    Integer.parseInt(required(params, "rating")), required(params, "comment"), new Date());
+            hotel.addReview(review);
+            return new Response(201, reviewJson(review));
+        }
+        requireMethod(exchange, "GET");
+        if (!params.containsKey("q")) {
+            return reviewFeed(params); // never the whole review list
+        }
+        List<Review> found = hotel.searchReviews(params.get("q"), params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : 20);
+        StringBuilder json = new StringBuilder("[");
+        for (Review review : found) {
+            if (json.length() > 1) json.append(',');
+            json.append(reviewJson(review));
+        }
+        return Response.ok(json.append(']').toString());
+    }
+
+    // One page of the newest-first feed, size capped by Hotel.MAX_REVIEW_PAGE_SIZE
+    private Response reviewFeed(Map<String, String> params) {
+        ReviewPage page = hotel.getReviewPage(
+                params.containsKey("after") ? ReviewCursor.parse(params.get("after")) : null,
+                params.containsKey("size") ? Integer.parseInt(params.get("size")) : 20);
+        StringBuilder json = new StringBuilder("{\"reviews\":[");
+        for (Review review : page.getReviews()) {
+            if (json.charAt(json.length() - 1) != '[') json.append(',');
+            json.append(reviewJson(review));
+        }
+        json.append("],\"next\":").append(page.getNext() == null ? "null" : quote(page.getNext().toString()));
+        return Response.ok(json.append('}').toString());
+    }
+
+    private Response offers(HttpExchange exchange, Map<String, String> params) throws Exception {
+        if (exchange.getRequestURI().getPath().equals("/offers/codes")) {
+            requireMethod(exchange, "POST");
+            requireAdmin(exchange);
+            String code = required(params, "code");
+            SpecialCodeOffer.addCode(new PromoCode(code,
+                    Double.parseDouble(required(params, "discount")),
+                    params.containsKey("maxUses") ? Integer.parseInt(required(params, "maxUses")) : PromoCode.UNLIMITED,
+                    params.containsKey("perCustomer") ? Integer.parseInt(required(params, "perCustomer")) : PromoCode.UNLIMITED,
+                    params.containsKey("validFrom") ? toDate(parseDate(params, "validFrom")) : null,
+                    params.containsKey("validUntil") ? endOfDay(parseDate(params, "validUntil")) : null));
+            return new Response(201, "{\"code\":" + quote(code) + "}");
+        }
+        requireMethod(exchange, "GET");
+        StringBuilder json = new StringBuilder("[");
+        for (Offer offer : hotel.getOffers()) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"type\":").append(quote(offer.getClass().getSimpleName()))
+                .append(",\"discountRate\":").append(offer.getDiscountRate())
+                .append(",\"active\":").append(offer.isActive());
+            if (offer instanceof SeasonalOffer) {
+                SeasonalOffer seasonal = (SeasonalOffer) offer;
+                json.append(",\"start\":").append(quote(seasonal.getStartDate().toString()))
+                    .append(",\"end\":").append(quote(seasonal.getEndDate().toString()));
+            }
+            json.append('}');
+        }
+        return Response.ok(json.append(']').toString());
+    }
+
+    private Response metrics(HttpExchange exchange, Map<String, String> params) throws Exception {
+        requireMethod(exchange, "GET");
+        requireAdmin(exchange);
+        StringBuilder json = new StringBuilder("{\"events\":{");
+        for (DomainEvent.Type type : DomainEvent.Type.values()) {
+            if (type.ordinal() > 0) json.append(',');
+            json.append(quote(type.name())).append(':').append(metrics.getCount(type));
+        }
+        json.append("},\"bookedTotal\":").append(quote(Money.format(metrics.getBookedCents())))
+            .append(",\"published\":").append(hotel.getEvents().getPublishedCount())
+            .append(",\"lag\":").append(metricsSubscription.getLag())
+            .append(",\"handlerFailures\":").append(hotel.getEvents().getHandlerFailures())
+            .append('}');
+        return Response.ok(json.toString());
+    }
+
+    // Plumbing
+    private interface Handler {
+        Response handle(HttpExchange exchange, Map<String, String> params) throws Exception;
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(String body) {
+            return new Response(200, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(message == null ? "Unexpected error" : message) + "}");
+        }
+    }
+
+    private static class Verification {
+        final String name;
+        final String code;
+        final long expiresAt;
+
+        Verification(String name, String code, long expiresAt) {
+            this.name = name;
+            this.code = code;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+
+    private static class MethodNotAllowedException extends Exception {
+        MethodNotAllowedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class UnauthorizedException extends Exception {
+        UnauthorizedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class ForbiddenException extends Exception {
+        ForbiddenException(String message) {
+            super(message);
+        }
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle(exchange, readParams(exchange));
+        } catch (MethodNotAllowedException e) {
+            response = Response.error(405, e.getMessage());
+        } catch (UnauthorizedException | SessionStore.AuthenticationException e) {
+            response = Response.error(401, e.getMessage());
+        } catch (ForbiddenException e) {
+            response = Response.error(403, e.getMessage());
+        } catch (Booking.BookingOperationException e) {
+            response = Response.error(409, e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException | DateTimeParseException
+                 | InvalidCodeException | InvalidEmailException | InvalidPasswordException | InvalidReviewException
+                 | Hotel.HotelOperationException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (Exception e) {
+            response = Response.error(500, e.getMessage());
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!key.isEmpty()) {
+                params.put(key, value);
+            }
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws MethodNotAllowedException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new MethodNotAllowedException(exchange.getRequestMethod() + " is not supported on " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Constant time, like the password check
+    private static boolean matches(String given, String expected) {
+        return expected != null && MessageDigest.isEqual(
+                given.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private User authenticate(HttpExchange exchange) throws UnauthorizedException {
+        User user = sessions.validate(bearerToken(exchange));
+        if (user == null) {
+            throw new UnauthorizedException("A valid session token is required");
+        }
+        return user;
+    }
+
+    // The logged-in customer, otherwise the guest account for name and email (never given a password here)
+    private Customer customerFor(HttpExchange exchange, Map<String, String> params) throws Exception {
+        if (bearerToken(exchange) != null) {
+            User user = authenticate(exchange);
+            if (user instanceof Customer) {
+                return (Customer) user;
+            }
+        }
+        return hotel.getCustomerRegistry().findOrCreate(required(params, "name"), required(params, "email"));
+    }
+
+    private void requireAdmin(HttpExchange exchange) throws UnauthorizedException, ForbiddenException {
+        if (authenticate(exchange) != admin) {
+            throw new ForbiddenException("Admin only");
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static LocalDate parseDate(Map<String, String> params, String name) {
+        return LocalDate.parse(required(params, name));
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Date endOfDay(LocalDate date) {
+        return new Date(toDate(date.plusDays(1)).getTime() - 1);
+    }
+
+    private static long parseId(String path) {
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+    }
+
+    // JSON
+    private static void appendRoom(StringBuilder json, Room room) {
+        json.append("{\"roomNumber\":").append(room.getRoomNumber())
+            .append(",\"type\":").append(quote(room.getType()))
+            .append(",\"price\":").append(room.getPrice())
+            .append(",\"capacity\":").append(room.getCapacity())
+            .append('}');
+    }
+
+    private static String bookingJson(Booking booking) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"bookingId\":").append(quote(Long.toString(booking.getBookingId())))
+            .append(",\"customer\":").append(quote(booking.getCustomer().getName()))
+            .append(",\"room\":");
+        appendRoom(json, booking.getRoom());
+        json.append(",\"checkIn\":").append(quote(booking.getStayStart().toString()))
+            .append(",\"checkOut\":").append(quote(booking.getStayEnd().toString()))
+            .append(",\"status\":").append(quote(booking.getStatus().name()))
+            .append(",\"totalPrice\":").append(booking.getTotalPrice())
+            .append('}');
+        return json.toString();
+    }
+
+    private static String reviewJson(Review review) {
+        return "{\"reviewId\":" + quote(Long.toString(review.getReviewId()))
+            + ",\"customer\":" + quote(review.getCustomer().getName())
+            + ",\"rating\":" + review.getRating()
+            + ",\"comment\":" + quote(review.getComment())
+            + ",\"date\":" + quote(String.valueOf(review.getDate()))
+            + "}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Hotel hotel = new Hotel();
+        hotel.addRoom(new SingleRoom(101, Money.of(100), true));
+        hotel.addRoom(new DoubleRoom(201, Money.of(150), true));
+        hotel.addRoom(new SuiteRoom(301, Money.of(250), true));
+        hotel.addRoom(new SingleRoom(102, Money.of(100), false));
+        hotel.addRoom(new DoubleRoom(202, Money.of(150), true));
+        String adminPassword = System.getProperty("hotel.adminPassword");
+        Admin admin = adminPassword == null ? null : new Admin("admin", "admin@hotel.local", adminPassword);
+        HotelServer server = new HotelServer(hotel, port, admin);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+    }
+}
@@ -0,0 +1,61 @@
+package app;
+
+
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ 64-bit ids for users, bookings, reviews and notifications.
+
+   | 41 bits millis since 2024-01-01 | 10 bits node | 12 bits sequence |
+
+ Ids from one node are unique and increasing; ids from different nodes
+ never collide as long as every instance runs with its own node id
+ (-Dhotel.nodeId=0..1023, default 0). Within a process allocation is a
+ single compare-and-set on the packed (millis, sequence) pair: more than
+ 4096 ids in one millisecond borrow the next millisecond, and a clock that
+ steps back is ignored, so ids keep increasing either way.
+ The time part lasts until 2093.
+*/
+public final class IdGenerator {
+    static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final IdGenerator DEFAULT = new IdGenerator(Integer.getInteger("hotel.nodeId", 0));
+
+    private final long nodeBits;
+    private final AtomicLong last = new AtomicLong(); // (millis << SEQUENCE_BITS) | sequence
+
+    public IdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public static long nextId() {
+        return DEFAULT.next();
+    }
+
+    public long next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long packed;
+        do {
+            previous = last.get();
+            packed = now > previous ? now : previous + 1;
+        } while (!last.compareAndSet(previous, packed));
+        long millis = packed >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (packed & SEQUENCE_MASK);
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
@@ -0,0 +1,92 @@
+package app;
+
+
+
+
+/*
+ Money is a plain long holding minor units (cents), so amounts never
+ allocate, never drift, and sums over many bookings are exact integer adds.
+ Rates (discounts) are int basis points: 1 bp = 0.01%, 10_000 bp = 100%.
+
+ Rounding rules:
+ - applying a rate rounds half up (0.5 cent -> 1 cent), on the discount
+   amount only, so subtotal - discount is always exact
+ - parse() is exact and rejects more than two decimals
+ - ofUnits(double) rounds half up and is only meant for converting legacy
+   or UI values that are already doubles
+*/
+final class Money {
+    public static final long CENTS_PER_UNIT = 100;
+    public static final int BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    public static long of(long units) {
+        return Math.multiplyExact(units, CENTS_PER_UNIT);
+    }
+
+    public static long ofUnits(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) throw new IllegalArgumentException("Amount must be a finite number");
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    public static long parse(String text) throws IllegalArgumentException {
+        if (text == null || text.trim().isEmpty()) throw new IllegalArgumentException("There is no amount");
+        String value = text.trim();
+        if (value.startsWith("$")) value = value.substring(1);
+        boolean negative = value.startsWith("-");
+        if (negative) value = value.substring(1);
+        int dot = value.indexOf('.');
+        String whole = dot < 0 ? value : value.substring(0, dot);
+        String fraction = dot < 0 ? "" : value.substring(dot + 1);
+        if (whole.isEmpty() && fraction.isEmpty() || fraction.length() > 2) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        for (int i = 0; i < whole.length(); i++) {
+            if (!Character.isDigit(whole.charAt(i))) throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        for (int i = 0; i < fraction.length(); i++) {
+            if (!Character.isDigit(fraction.charAt(i))) throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        long cents = whole.isEmpty() ? 0 : Math.multiplyExact(Long.parseLong(whole), CENTS_PER_UNIT);
+        if (!fraction.isEmpty()) {
+            cents += Long.parseLong(fraction) * (fraction.length() == 1 ? 10 : 1);
+        }
+        return negative ? -cents : cents;
+    }
+
+    public static long times(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // cents * basisPoints / 10_000, rounded half up
+    public static long applyRate(long cents, int basisPoints) {
+        long scaled = Math.multiplyExact(cents, (long) basisPoints);
+        long half = BASIS_POINTS / 2;
+        return scaled >= 0 ? (scaled + half) / BASIS_POINTS : -((-scaled + half) / BASIS_POINTS);
+    }
+
+    public static int toBasisPoints(double rate) {
+        if (rate < 0 || rate > 1) throw new IllegalArgumentException("Discount rate should be between 0 and 1");
+        return (int) Math.round(rate * BASIS_POINTS);
+    }
+
+    public static long sum(long[] amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            total += amount;
+        }
+        return total;
+    }
+
+    public static double toUnits(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    public static String format(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % CENTS_PER_UNIT;
+        return (cents < 0 ? "-$" : "$") + (abs / CENTS_PER_UNIT) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
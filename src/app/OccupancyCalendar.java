@@ -0,0 +1,93 @@
+package app;
+
+
+
+
+/*
+ One bit per night for a single room, packed 64 nights to a long.
+ Nights are addressed by epoch day (LocalDate.toEpochDay()) and ranges are
+ [fromDay, toDay) like stays in RoomSchedule.
+ A multi-night check only touches the words covering the stay, so a week
+ is at most two ANDs and nothing is allocated on the read path.
+ The array grows on demand in both directions, so only the booked horizon
+ of a room costs memory; it never spans more than MAX_SPAN_DAYS.
+*/
+class OccupancyCalendar {
+    static final long MAX_SPAN_DAYS = 64L * 128; // about 22 years, 1 KB
+    private long originDay; // epoch day of bit 0 in words[0], always a multiple of 64
+    private long[] words = new long[0];
+
+    public boolean isFree(long fromDay, long toDay) {
+        long start = Math.max(fromDay, originDay);
+        long end = Math.min(toDay, originDay + 64L * words.length);
+        if (start >= end) {
+            return true;
+        }
+        int first = (int) ((start - originDay) >>> 6);
+        int last = (int) ((end - 1 - originDay) >>> 6);
+        long firstMask = -1L << ((start - originDay) & 63);
+        long lastMask = -1L >>> (63 - ((end - 1 - originDay) & 63));
+        if (first == last) {
+            return (words[first] & firstMask & lastMask) == 0;
+        }
+        if ((words[first] & firstMask) != 0) {
+            return false;
+        }
+        for (int i = first + 1; i < last; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return (words[last] & lastMask) == 0;
+    }
+
+    public void mark(long fromDay, long toDay) {
+        ensureCapacity(fromDay, toDay);
+        update(fromDay, toDay, true);
+    }
+
+    public void clear(long fromDay, long toDay) {
+        long start = Math.max(fromDay, originDay);
+        long end = Math.min(toDay, originDay + 64L * words.length);
+        if (start < end) {
+            update(start, end, false);
+        }
+    }
+
+    private void update(long fromDay, long toDay, boolean occupied) {
+        int first = (int) ((fromDay - originDay) >>> 6);
+        int last = (int) ((toDay - 1 - originDay) >>> 6);
+        for (int i = first; i <= last; i++) {
+            long mask = -1L;
+            if (i == first) mask &= -1L << ((fromDay - originDay) & 63);
+            if (i == last) mask &= -1L >>> (63 - ((toDay - 1 - originDay) & 63));
+            words[i] = occupied ? words[i] | mask : words[i] & ~mask;
+        }
+    }
+
+    // Checked before anything is allocated or changed, so a refused range leaves the calendar as it was
+    private void ensureCapacity(long fromDay, long toDay) {
+        long newOrigin = Math.floorDiv(fromDay, 64) * 64;
+        long newEnd = Math.floorDiv(toDay + 63, 64) * 64;
+        if (words.length > 0) {
+            long end = originDay + 64L * words.length;
+            if (newOrigin >= originDay && newEnd <= end) {
+                return;
+            }
+            newOrigin = Math.min(newOrigin, originDay);
+            newEnd = Math.max(newEnd, end);
+        }
+        if (newEnd - newOrigin > MAX_SPAN_DAYS) {
+            throw new IllegalArgumentException("Bookings of a room cannot span more than " + MAX_SPAN_DAYS + " days");
+        }
+        if (words.length == 0) {
+            originDay = newOrigin;
+            words = new long[(int) ((newEnd - newOrigin) >>> 6)];
+            return;
+        }
+        long[] grown = new long[(int) ((newEnd - newOrigin) >>> 6)];
+        System.arraycopy(words, 0, grown, (int) ((originDay - newOrigin) >>> 6), words.length);
+        originDay = newOrigin;
+        words = grown;
+    }
+}
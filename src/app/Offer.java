@@ -3,8 +3,8 @@ package app;
 
 
 
+import java.time.LocalDate;
 import java.util.Date;
-import java.util.HashMap;
 
 
 
@@ -31,15 +31,24 @@ class InvalidCodeException extends RuntimeException {
 }
 
 public abstract class Offer {
-     protected boolean isActive;
-    protected double discountRate;
+     protected volatile boolean isActive; // kept current by OfferScheduler for hotel offers
+    protected int discountBasisPoints; // 1 bp = 0.01%, see Money
     public double getDiscountRate(){
-        return discountRate;
+        return discountBasisPoints / (double) Money.BASIS_POINTS;
     }
-    public double applyOffer(double price)throws IllegalStateException,IllegalArgumentException{
+    public int getDiscountBasisPoints(){
+        return discountBasisPoints;
+    }
+    public boolean isActive(){
+        return isActive;
+    }
+    void setActive(boolean isActive){
+        this.isActive = isActive;
+    }
+    public long applyOffer(long priceCents)throws IllegalStateException,IllegalArgumentException{
         if(!isActive) throw new IllegalStateException("The Offer cannot be applied");
-        if(price < 0) throw new IllegalArgumentException("the price must be a positive value");
-        return price-(price*discountRate);
+        if(priceCents < 0) throw new IllegalArgumentException("the price must be a positive value");
+        return priceCents-Money.applyRate(priceCents, discountBasisPoints);
     }
     public abstract boolean checkOffer();
 }
@@ -47,8 +56,7 @@ class SeasonalOffer extends Offer {
     private Date startDate;
     private Date endDate;
     public SeasonalOffer(double discountRate,Date startDate,Date endDate)throws IllegalArgumentException{
-        if(discountRate < 0 || discountRate > 1) throw new IllegalArgumentException("Discount rate should be between 0 and 1");
-        this.discountRate = discountRate;
+        this.discountBasisPoints = Money.toBasisPoints(discountRate);
         this.startDate = startDate;
         this.endDate = endDate;
         this.isActive = this.checkOffer();
@@ -59,6 +67,10 @@ class SeasonalOffer extends Offer {
     public Date getEndDate(){
         return endDate;
     }
+    // The window (end inclusive) overlaps at least one night of [from, to)
+    public boolean coversStay(LocalDate from, LocalDate to){
+        return startDate.getTime() < OfferResolver.startOf(to) && endDate.getTime() >= OfferResolver.startOf(from);
+    }
     @Override
     public boolean checkOffer(){
         Date currentDate = new Date();
@@ -69,14 +81,29 @@ class SeasonalOffer extends Offer {
 }
 class SpecialCodeOffer extends Offer{
     private String promoCode;
-    private static HashMap<String, Double> availableCodes = new HashMap<>();
+    private static final PromoRegistry registry = new PromoRegistry();
     public SpecialCodeOffer(String promoCode)throws IllegalArgumentException,InvalidCodeException{
         if(promoCode == null || promoCode.trim().isEmpty()) throw new IllegalArgumentException("There is no code");
-        if(availableCodes.get(promoCode) == null) throw new InvalidCodeException();
+        PromoLookupResult result = registry.lookup(promoCode, System.currentTimeMillis());
+        if(!result.isValid()) throw new InvalidCodeException(result.getMessage());
         this.promoCode = promoCode;
-        this.discountRate = availableCodes.get(promoCode);
+        this.discountBasisPoints = result.getCode().getDiscountBasisPoints();
+        this.isActive = true;
+    }
+    private SpecialCodeOffer(PromoCode code){
+        this.promoCode = code.getCode();
+        this.discountBasisPoints = code.getDiscountBasisPoints();
         this.isActive = true;
     }
+    /*
+    Same checks as the constructor but returns null for an unknown or expired
+    code instead of throwing; use it where invalid codes are expected
+    (user input). The reason is in registry.lookup(...).getMessage()
+    */
+    static public SpecialCodeOffer find(String promoCode){
+        PromoLookupResult result = registry.lookup(promoCode, System.currentTimeMillis());
+        return result.isValid() ? new SpecialCodeOffer(result.getCode()) : null;
+    }
     public String getPromoCode(){
         return promoCode;
     }
@@ -85,17 +112,19 @@ class SpecialCodeOffer extends Offer{
         return isActive;
     }
     static public void addCode(String code,double discount)throws IllegalArgumentException,IllegalStateException{
-        if(discount < 0 || discount > 1) throw new IllegalArgumentException("Discount rate should be between 0 and 1");
-        if(code == null || code.trim().isEmpty()) throw new IllegalArgumentException("There is no code");
-        if(availableCodes.get(code) != null) throw new IllegalStateException ("Code already exist");
-        availableCodes.put(code, discount);
+        registry.add(new PromoCode(code, discount));
+    }
+    static public void addCode(PromoCode code)throws IllegalArgumentException,IllegalStateException{
+        registry.add(code);
     }
     static public void removeCode(String code)throws IllegalArgumentException{
-        if(code == null || code.trim().isEmpty()) throw new IllegalArgumentException("There is no code");
-        if(availableCodes.get(code) == null) throw new IllegalStateException ("Code already doesn't exist");
-        availableCodes.remove(code);
+        registry.remove(code);
     }
     /*
-    The two methods above are for the admin to insert and remove promocodes
+    The methods above are for the admin to insert and remove promocodes,
+    redemptions (usage caps, per-customer limits) go through the registry
     */
+    static public PromoRegistry getRegistry(){
+        return registry;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ Time-indexed catalog of seasonal offers.
+ The start/end dates of all campaigns cut the timeline into elementary
+ segments; every segment stores the offers covering it, best discount first.
+ Finding the best offer for a stay is a binary search for the check-in
+ segment and a walk to the check-out one, so quoting never scans the
+ campaigns. Offers are matched by their window against the stay dates;
+ isActive() (kept by OfferScheduler) says whether an offer is running
+ today and plays no part in pricing.
+ Adding or removing an offer rebuilds the index into a new immutable snapshot
+ (offers change rarely, quotes happen on every booking), readers just read
+ the current snapshot without locking.
+*/
+public class OfferResolver {
+    private static final SeasonalOffer[] NONE = new SeasonalOffer[0];
+    private static final Comparator<SeasonalOffer> BEST_FIRST =
+            Comparator.comparingInt(SeasonalOffer::getDiscountBasisPoints).reversed();
+
+    private final Set<SeasonalOffer> offers = new LinkedHashSet<>();
+    private volatile Index index = new Index(new long[0], new SeasonalOffer[0][]);
+
+    public synchronized void add(SeasonalOffer offer) {
+        if (offer == null) throw new IllegalArgumentException("Offer cannot be null");
+        if (offers.add(offer)) {
+            index = build(offers);
+        }
+    }
+
+    public synchronized void remove(SeasonalOffer offer) {
+        if (offers.remove(offer)) {
+            index = build(offers);
+        }
+    }
+
+    /*
+     Best seasonal offer for a stay of the nights [from, to): the largest
+     discount among the offers whose window overlaps at least one night of
+     it. Walks only the segments between check-in and check-out. The window
+     decides, not isActive(), which follows today's date: a summer deal
+     applies to a summer stay booked in spring.
+    */
+    public SeasonalOffer bestSeasonal(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) throw new IllegalArgumentException("Check-in date must be before check-out date");
+        return index.best(startOf(from), startOf(to));
+    }
+
+    /*
+     Offers to apply to a stay of the nights [from, to), in the order they
+     are applied. promo may be null.
+    */
+    public List<Offer> resolve(LocalDate from, LocalDate to, Offer promo, StackingPolicy policy) {
+        if (policy == null) throw new IllegalArgumentException("Stacking policy cannot be null");
+        SeasonalOffer seasonal = bestSeasonal(from, to);
+        List<Offer> result = new ArrayList<>(2);
+        switch (policy) {
+            case BEST_ONLY:
+                Offer best = seasonal;
+                if (promo != null && (best == null || promo.getDiscountBasisPoints() > best.getDiscountBasisPoints())) {
+                    best = promo;
+                }
+                if (best != null) result.add(best);
+                break;
+            case PROMO_OVERRIDES:
+                if (promo != null) result.add(promo);
+                else if (seasonal != null) result.add(seasonal);
+                break;
+            case STACK:
+                if (seasonal != null) result.add(seasonal);
+                if (promo != null) result.add(promo);
+                break;
+        }
+        return result;
+    }
+
+    static long startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public synchronized int size() {
+        return offers.size();
+    }
+
+    private static Index build(Set<SeasonalOffer> offers) {
+        // Windows are inclusive of the end instant (see SeasonalOffer.checkOffer), so a window covers [start, end + 1)
+        long[] points = new long[offers.size() * 2];
+        int n = 0;
+        for (SeasonalOffer offer : offers) {
+            points[n++] = offer.getStartDate().getTime();
+            points[n++] = offer.getEndDate().getTime() + 1;
+        }
+        Arrays.sort(points);
+        int distinct = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (distinct == 0 || points[i] != points[distinct - 1]) {
+                points[distinct++] = points[i];
+            }
+        }
+        long[] bounds = Arrays.copyOf(points, distinct);
+        SeasonalOffer[][] segments = new SeasonalOffer[bounds.length][];
+        for (int i = 0; i < bounds.length; i++) {
+            List<SeasonalOffer> covering = new ArrayList<>();
+            for (SeasonalOffer offer : offers) {
+                if (offer.getStartDate().getTime() <= bounds[i] && bounds[i] <= offer.getEndDate().getTime()) {
+                    covering.add(offer);
+                }
+            }
+            covering.sort(BEST_FIRST);
+            segments[i] = covering.isEmpty() ? NONE : covering.toArray(NONE);
+        }
+        return new Index(bounds, segments);
+    }
+
+    private static final class Index {
+        final long[] bounds;            // segment i is [bounds[i], bounds[i + 1])
+        final SeasonalOffer[][] segments;
+
+        Index(long[] bounds, SeasonalOffer[][] segments) {
+            this.bounds = bounds;
+            this.segments = segments;
+        }
+
+        // Best offer covering some instant of [from, to); segments are sorted best first
+        SeasonalOffer best(long from, long to) {
+            SeasonalOffer best = null;
+            for (int i = Math.max(0, segmentOf(from)); i < bounds.length && bounds[i] < to; i++) {
+                if (segments[i].length > 0 && (best == null
+                        || segments[i][0].getDiscountBasisPoints() > best.getDiscountBasisPoints())) {
+                    best = segments[i][0];
+                }
+            }
+            return best;
+        }
+
+        private int segmentOf(long at) {
+            int i = Arrays.binarySearch(bounds, at);
+            return i < 0 ? -i - 2 : i; // segment starting at or before at, -1 before the first
+        }
+    }
+}
+
+/*
+ How a promo code combines with the seasonal offers:
+ BEST_ONLY        the single largest discount wins
+ PROMO_OVERRIDES  a valid promo code replaces the seasonal offer
+ STACK            the best seasonal offer, then the promo on what is left
+*/
+enum StackingPolicy {
+    BEST_ONLY, PROMO_OVERRIDES, STACK
+}
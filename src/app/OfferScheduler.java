@@ -0,0 +1,77 @@
+package app;
+
+
+
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+ Keeps SeasonalOffer.isActive() in step with the calendar.
+ Each tracked offer gets two timers, one at its start and one just after its
+ end, that flip the flag. The flag says which offers are running today, for
+ listings (GET /offers) and the OFFER_ACTIVATED event; pricing matches
+ offers to the stay dates instead (OfferResolver). Offers that were never
+ tracked keep the state computed when they were created. onActivated
+ hears about the timer flips to active.
+*/
+public class OfferScheduler {
+    private final TimingWheel wheel;
+    private final Map<SeasonalOffer, TimingWheel.Timeout[]> timers = new ConcurrentHashMap<>();
+    private final Consumer<SeasonalOffer> onActivated;
+
+    public OfferScheduler() {
+        this(offer -> { });
+    }
+
+    public OfferScheduler(Consumer<SeasonalOffer> onActivated) {
+        this(new TimingWheel("offers", 1, TimeUnit.SECONDS, 512), onActivated);
+    }
+
+    public OfferScheduler(TimingWheel wheel, Consumer<SeasonalOffer> onActivated) {
+        if (wheel == null) throw new IllegalArgumentException("Timing wheel cannot be null");
+        if (onActivated == null) throw new IllegalArgumentException("Activation callback cannot be null");
+        this.wheel = wheel;
+        this.onActivated = onActivated;
+    }
+
+    public void track(SeasonalOffer offer) {
+        if (offer == null) throw new IllegalArgumentException("Offer cannot be null");
+        long start = offer.getStartDate().getTime();
+        long end = offer.getEndDate().getTime() + 1; // the window includes its end instant
+        long now = System.currentTimeMillis();
+        offer.setActive(start <= now && now < end);
+        TimingWheel.Timeout[] scheduled = new TimingWheel.Timeout[2];
+        if (now < start) {
+            scheduled[0] = wheel.scheduleAt(() -> {
+                offer.setActive(true);
+                onActivated.accept(offer);
+            }, start);
+        }
+        if (now < end) {
+            scheduled[1] = wheel.scheduleAt(() -> offer.setActive(false), end);
+        }
+        cancel(timers.put(offer, scheduled));
+    }
+
+    public void untrack(SeasonalOffer offer) {
+        cancel(timers.remove(offer));
+    }
+
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    private static void cancel(TimingWheel.Timeout[] scheduled) {
+        if (scheduled == null) {
+            return;
+        }
+        for (TimingWheel.Timeout timeout : scheduled) {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
@@ -8,7 +8,7 @@ import java.util.Date;
 
 
 public interface Payment {
-    public boolean pay(double amount);
+    public boolean pay(long amountCents);
 }
 class PayPalPayment implements Payment {
     private String paypalEmail;
@@ -20,8 +20,8 @@ class PayPalPayment implements Payment {
         this.paypalEmail = paypalEmail;
     }
 
-    public boolean pay(double amount)throws IllegalArgumentException{
-        if(amount < 0) throw new IllegalArgumentException("the amount must be a positive value");
+    public boolean pay(long amountCents)throws IllegalArgumentException{
+        if(amountCents < 0) throw new IllegalArgumentException("the amount must be a positive value");
         return true; // assume the user have enough balance in their bank account
     }
 }
@@ -55,8 +55,8 @@ class CreditCardPayment implements Payment{
         this.CVV = CVV;
     }
    
-    public boolean pay(double amount)throws IllegalArgumentException{
-        if(amount < 0) throw new IllegalArgumentException("the amount must be a positive value");
+    public boolean pay(long amountCents)throws IllegalArgumentException{
+        if(amountCents < 0) throw new IllegalArgumentException("the amount must be a positive value");
         return true; // assume the user have enough balance in their bank account
     }
 }
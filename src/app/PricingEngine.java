@@ -0,0 +1,77 @@
+package app;
+
+
+
+
+import java.util.List;
+
+/*
+ Running price of one booking.
+ The room part is fixed when the stay is priced, services are added to a
+ running subtotal as they are booked and the offer only stores its rate, so
+ every change and every total() is O(1) and nothing here does I/O.
+ Quoting a service (Service.quote) is kept apart from delivering it
+ (Service.useService).
+ All amounts are long cents and rates are basis points (see Money): each
+ offer's discount is rounded half up once, on the whole remaining amount, and
+ the total is subtotal - discount, so totals are exact and reproducible.
+*/
+class PricingEngine {
+    private long roomSubtotal;
+    private long servicesSubtotal;
+    private int serviceCount;
+    private int[] discountBasisPoints = new int[0]; // one rate per offer, applied in order
+
+    public void priceStay(long nightlyRateCents, long nights) {
+        if (nightlyRateCents < 0) throw new IllegalArgumentException("Price cannot be negative");
+        if (nights < 0) throw new IllegalArgumentException("Nights cannot be negative");
+        this.roomSubtotal = Money.times(nightlyRateCents, nights);
+    }
+
+    public void addService(Service service) {
+        servicesSubtotal = Math.addExact(servicesSubtotal, service.quote());
+        serviceCount++;
+    }
+
+    public void applyOffer(Offer offer) {
+        applyOffers(offer == null ? List.of() : List.of(offer));
+    }
+
+    // Stacked offers compound: each one discounts what the previous ones left
+    public void applyOffers(List<Offer> offers) {
+        int[] rates = new int[offers.size()];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = offers.get(i).getDiscountBasisPoints();
+        }
+        this.discountBasisPoints = rates;
+    }
+
+    public long getRoomSubtotal() {
+        return roomSubtotal;
+    }
+
+    public long getServicesSubtotal() {
+        return servicesSubtotal;
+    }
+
+    public int getServiceCount() {
+        return serviceCount;
+    }
+
+    public long getSubtotal() {
+        return roomSubtotal + servicesSubtotal;
+    }
+
+    public long getDiscount() {
+        long subtotal = getSubtotal();
+        long remaining = subtotal;
+        for (int rate : discountBasisPoints) {
+            remaining -= Money.applyRate(remaining, rate);
+        }
+        return subtotal - remaining;
+    }
+
+    public long total() {
+        return getSubtotal() - getDiscount();
+    }
+}
@@ -0,0 +1,227 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Promo codes and their redemption counters.
+ Safe for concurrent use: codes live in a ConcurrentHashMap and every counter
+ is an AtomicInteger bumped with compare-and-set against its cap, so two
+ bookings racing for the last use of a code cannot both get it.
+ A redemption is taken when a booking is placed and handed back with
+ release() when that booking fails, e.g. on a declined payment.
+
+ A Bloom filter of every code ever added sits in front of the map: most
+ guessed codes are rejected by lookup() from a few bit probes, without a map
+ lookup or an exception. Codes are added to the filter before the map, so it
+ never says "absent" for a live code. Adds and the rebuild that grows the
+ filter are serialized; lookups never lock.
+*/
+public class PromoRegistry {
+    private static final int INITIAL_FILTER_CAPACITY = 1024;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private final ConcurrentHashMap<String, PromoCode> codes = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(INITIAL_FILTER_CAPACITY, FILTER_FALSE_POSITIVE_RATE);
+    private int filterInserts; // guarded by this
+
+    public synchronized void add(PromoCode code) throws IllegalArgumentException, IllegalStateException {
+        if (code == null) throw new IllegalArgumentException("There is no code");
+        if (codes.containsKey(code.getCode())) throw new IllegalStateException("Code already exist");
+        if (filterInserts >= filter.getExpectedItems()) {
+            rebuildFilter(Math.max(INITIAL_FILTER_CAPACITY, codes.size() * 2));
+        }
+        filter.put(code.getCode());
+        filterInserts++;
+        codes.put(code.getCode(), code);
+    }
+
+    public synchronized void remove(String code) throws IllegalArgumentException, IllegalStateException {
+        if (code == null || code.trim().isEmpty()) throw new IllegalArgumentException("There is no code");
+        if (codes.remove(code) == null) throw new IllegalStateException("Code already doesn't exist");
+        // the filter keeps the code until the next rebuild; lookup() then just misses the map
+    }
+
+    // Non-throwing check for the booking forms: unknown codes cost a few bit probes
+    public PromoLookupResult lookup(String code, long atMillis) {
+        if (code == null || !filter.mightContain(code)) {
+            return PromoLookupResult.UNKNOWN;
+        }
+        PromoCode promo = codes.get(code);
+        if (promo == null) {
+            return PromoLookupResult.UNKNOWN;
+        }
+        return promo.isValidAt(atMillis) ? PromoLookupResult.valid(promo) : PromoLookupResult.notValidNow(promo);
+    }
+
+    private void rebuildFilter(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(capacity, FILTER_FALSE_POSITIVE_RATE);
+        for (String existing : codes.keySet()) {
+            rebuilt.put(existing);
+        }
+        filter = rebuilt;
+        filterInserts = codes.size();
+    }
+
+    public PromoCode get(String code) {
+        return code == null ? null : codes.get(code);
+    }
+
+    public List<PromoCode> getCodes() {
+        return new ArrayList<>(codes.values());
+    }
+
+    // Takes one use of the code for the customer, or throws InvalidCodeException saying why not
+    public PromoCode redeem(String code, String customerEmail, Date at) throws InvalidCodeException {
+        PromoCode promo = codes.get(code);
+        if (promo == null) throw new InvalidCodeException();
+        promo.redeem(customerEmail, at);
+        return promo;
+    }
+
+    public void release(String code, String customerEmail) {
+        PromoCode promo = codes.get(code);
+        if (promo != null) {
+            promo.release(customerEmail);
+        }
+    }
+}
+
+class PromoCode {
+    public static final int UNLIMITED = 0;
+
+    private final String code;
+    private final int discountBasisPoints;
+    private final int maxRedemptions;      // UNLIMITED or total uses of the code
+    private final int maxPerCustomer;      // UNLIMITED or uses per customer email
+    private final Date validFrom;          // null = no start
+    private final Date validUntil;         // null = no end, inclusive otherwise
+    private final AtomicInteger redemptions = new AtomicInteger();
+    private final ConcurrentHashMap<String, AtomicInteger> perCustomer = new ConcurrentHashMap<>();
+
+    public PromoCode(String code, double discountRate) throws IllegalArgumentException {
+        this(code, discountRate, UNLIMITED, UNLIMITED, null, null);
+    }
+
+    public PromoCode(String code, double discountRate, int maxRedemptions, int maxPerCustomer,
+                     Date validFrom, Date validUntil) throws IllegalArgumentException {
+        if (code == null || code.trim().isEmpty()) throw new IllegalArgumentException("There is no code");
+        if (maxRedemptions < 0) throw new IllegalArgumentException("Usage cap cannot be negative");
+        if (maxPerCustomer < 0) throw new IllegalArgumentException("Per-customer limit cannot be negative");
+        if (validFrom != null && validUntil != null && validUntil.before(validFrom)) {
+            throw new IllegalArgumentException("The code must start before it ends");
+        }
+        this.code = code;
+        this.discountBasisPoints = Money.toBasisPoints(discountRate);
+        this.maxRedemptions = maxRedemptions;
+        this.maxPerCustomer = maxPerCustomer;
+        this.validFrom = validFrom == null ? null : new Date(validFrom.getTime());
+        this.validUntil = validUntil == null ? null : new Date(validUntil.getTime());
+    }
+
+    public String getCode() { return code; }
+    public int getDiscountBasisPoints() { return discountBasisPoints; }
+    public int getMaxRedemptions() { return maxRedemptions; }
+    public int getMaxPerCustomer() { return maxPerCustomer; }
+    public int getRedemptions() { return redemptions.get(); }
+    public Date getValidFrom() { return validFrom == null ? null : new Date(validFrom.getTime()); }
+    public Date getValidUntil() { return validUntil == null ? null : new Date(validUntil.getTime()); }
+
+    public boolean isValidAt(Date at) {
+        return isValidAt(at.getTime());
+    }
+
+    public boolean isValidAt(long time) {
+        return (validFrom == null || validFrom.getTime() <= time) && (validUntil == null || time <= validUntil.getTime());
+    }
+
+    void redeem(String customerEmail, Date at) throws InvalidCodeException {
+        if (!isValidAt(at)) throw new InvalidCodeException("Promo code " + code + " is not valid at this time");
+        AtomicInteger customerUses = null;
+        if (maxPerCustomer != UNLIMITED) {
+            customerUses = perCustomer.computeIfAbsent(customerKey(customerEmail), k -> new AtomicInteger());
+            if (!increment(customerUses, maxPerCustomer)) {
+                throw new InvalidCodeException("Promo code " + code + " was already used by this customer");
+            }
+        }
+        if (!increment(redemptions, maxRedemptions)) {
+            if (customerUses != null) {
+                customerUses.decrementAndGet();
+            }
+            throw new InvalidCodeException("Promo code " + code + " has been fully redeemed");
+        }
+    }
+
+    void release(String customerEmail) {
+        decrement(redemptions);
+        if (maxPerCustomer != UNLIMITED) {
+            AtomicInteger customerUses = perCustomer.get(customerKey(customerEmail));
+            if (customerUses != null) {
+                decrement(customerUses);
+            }
+        }
+    }
+
+    // CAS loop: bumps the counter only while it is below the cap
+    private static boolean increment(AtomicInteger counter, int cap) {
+        while (true) {
+            int current = counter.get();
+            if (cap != UNLIMITED && current >= cap) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static void decrement(AtomicInteger counter) {
+        counter.updateAndGet(current -> current > 0 ? current - 1 : 0);
+    }
+
+    private static String customerKey(String customerEmail) {
+        return CustomerRegistry.normalize(customerEmail);
+    }
+}
+
+enum PromoLookupStatus {
+    VALID, UNKNOWN, NOT_VALID_NOW
+}
+
+class PromoLookupResult {
+    static final PromoLookupResult UNKNOWN = new PromoLookupResult(PromoLookupStatus.UNKNOWN, null);
+
+    private final PromoLookupStatus status;
+    private final PromoCode code;
+
+    private PromoLookupResult(PromoLookupStatus status, PromoCode code) {
+        this.status = status;
+        this.code = code;
+    }
+
+    static PromoLookupResult valid(PromoCode code) {
+        return new PromoLookupResult(PromoLookupStatus.VALID, code);
+    }
+
+    static PromoLookupResult notValidNow(PromoCode code) {
+        return new PromoLookupResult(PromoLookupStatus.NOT_VALID_NOW, code);
+    }
+
+    public boolean isValid() { return status == PromoLookupStatus.VALID; }
+    public PromoLookupStatus getStatus() { return status; }
+    public PromoCode getCode() { return code; }
+
+    public String getMessage() {
+        switch (status) {
+            case VALID: return "Promo code " + code.getCode() + " applied";
+            case NOT_VALID_NOW: return "Promo code " + code.getCode() + " is not valid at this time";
+            default: return "Invalid Code provided";
+        }
+    }
+}
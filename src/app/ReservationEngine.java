@@ -0,0 +1,311 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ Owns the reserve -> confirm / release transitions for room stays.
+ Reserving relies on the room's schedule, which checks and marks the nights
+ atomically; confirm and release run under the room's own reservation lock,
+ so bookings for different rooms never contend.
+ Conflicts are reported as a ReservationResult instead of an exception.
+*/
+public class ReservationEngine {
+    private static final int GROUP_ATTEMPTS = 3;
+
+    private final Hotel hotel;
+
+    public ReservationEngine(Hotel hotel) {
+        if (hotel == null) throw new IllegalArgumentException("Hotel cannot be null");
+        this.hotel = hotel;
+    }
+
+    public ReservationResult reserve(int roomNumber, LocalDate from, LocalDate to) {
+        Room room = hotel.getRoom(roomNumber);
+        if (room == null) {
+            return ReservationResult.failed(ReservationStatus.ROOM_NOT_FOUND, "Room #" + roomNumber + " does not exist");
+        }
+        return reserve(room, from, to);
+    }
+
+    public ReservationResult reserve(Room room, LocalDate from, LocalDate to) {
+        if (room == null || from == null || to == null || !from.isBefore(to)) {
+            return ReservationResult.failed(ReservationStatus.INVALID_REQUEST, "A room and a valid date range are required");
+        }
+        String invalid = Hotel.checkStay(from, to);
+        if (invalid != null) {
+            return ReservationResult.failed(ReservationStatus.INVALID_REQUEST, invalid);
+        }
+        if (!room.reserve(from, to)) {
+            return ReservationResult.failed(ReservationStatus.ALREADY_TAKEN,
+                    "Room #" + room.getRoomNumber() + " is already taken for the selected dates");
+        }
+        return ReservationResult.reserved(new Reservation(this, room, from, to));
+    }
+
+    // Reserves the cheapest free room of the type, moving on if another booking wins the race for it
+    public ReservationResult reserveAny(RoomType type, LocalDate from, LocalDate to) {
+        if (type == null || from == null || to == null || !from.isBefore(to)) {
+            return ReservationResult.failed(ReservationStatus.INVALID_REQUEST, "A room type and a valid date range are required");
+        }
+        try {
+            Room candidate;
+            while ((candidate = hotel.findAvailableRoom(type, from, to)) != null) {
+                ReservationResult result = reserve(candidate, from, to);
+                if (result.isReserved()) {
+                    return result;
+                }
+            }
+        } catch (Hotel.HotelOperationException e) {
+            return ReservationResult.failed(ReservationStatus.INVALID_REQUEST, e.getMessage());
+        }
+        return ReservationResult.failed(ReservationStatus.ALREADY_TAKEN, "No available rooms of type " + type + " for these dates");
+    }
+
+    public boolean confirm(Reservation reservation) {
+        if (reservation == null || reservation.getEngine() != this) {
+            return false;
+        }
+        ReentrantLock lock = reservation.getRoom().getReservationLock();
+        lock.lock();
+        try {
+            if (reservation.getState() != ReservationState.HELD) {
+                return false;
+            }
+            reservation.setState(ReservationState.CONFIRMED);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean release(Reservation reservation) {
+        if (reservation == null || reservation.getEngine() != this) {
+            return false;
+        }
+        ReentrantLock lock = reservation.getRoom().getReservationLock();
+        lock.lock();
+        try {
+            return releaseLocked(reservation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     All-or-nothing reservation for a group. Rooms are picked without locking,
+     then every picked room is locked in ascending room number order, so
+     competing groups can never wait on each other in a cycle. If a picked
+     room was taken in the meantime, the stays written so far are undone and
+     the pick is retried a few times before giving up.
+    */
+    public GroupReservationResult reserveGroup(List<RoomRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return GroupReservationResult.failed(ReservationStatus.INVALID_REQUEST, "A group reservation needs at least one room request");
+        }
+        for (int attempt = 0; attempt < GROUP_ATTEMPTS; attempt++) {
+            List<Reservation> picked;
+            try {
+                picked = pickRooms(requests);
+            } catch (Hotel.HotelOperationException e) {
+                return GroupReservationResult.failed(ReservationStatus.INVALID_REQUEST, e.getMessage());
+            }
+            if (picked == null) {
+                return GroupReservationResult.failed(ReservationStatus.ALREADY_TAKEN, "Not enough free rooms for the group");
+            }
+            List<Room> order = lockOrder(picked);
+            lockAll(order);
+            try {
+                List<Reservation> held = new ArrayList<>(picked.size());
+                for (Reservation reservation : picked) {
+                    if (!reservation.getRoom().reserve(reservation.getFrom(), reservation.getTo())) {
+                        break;
+                    }
+                    held.add(reservation);
+                }
+                if (held.size() == picked.size()) {
+                    return GroupReservationResult.reserved(new GroupReservation(this, held));
+                }
+                for (Reservation reservation : held) {
+                    releaseLocked(reservation); // roll back and pick again
+                }
+            } finally {
+                unlockAll(order);
+            }
+        }
+        return GroupReservationResult.failed(ReservationStatus.ALREADY_TAKEN, "Rooms for the group were taken by other bookings");
+    }
+
+    public boolean confirm(GroupReservation group) {
+        if (group == null || group.getEngine() != this) {
+            return false;
+        }
+        List<Room> order = lockOrder(group.getReservations());
+        lockAll(order);
+        try {
+            for (Reservation reservation : group.getReservations()) {
+                if (reservation.getState() != ReservationState.HELD) {
+                    return false;
+                }
+            }
+            for (Reservation reservation : group.getReservations()) {
+                reservation.setState(ReservationState.CONFIRMED);
+            }
+            return true;
+        } finally {
+            unlockAll(order);
+        }
+    }
+
+    public boolean release(GroupReservation group) {
+        if (group == null || group.getEngine() != this) {
+            return false;
+        }
+        List<Room> order = lockOrder(group.getReservations());
+        lockAll(order);
+        try {
+            boolean released = false;
+            for (Reservation reservation : group.getReservations()) {
+                released |= releaseLocked(reservation);
+            }
+            return released;
+        } finally {
+            unlockAll(order);
+        }
+    }
+
+    // Caller holds the reservation's room lock
+    private boolean releaseLocked(Reservation reservation) {
+        if (reservation.getState() == ReservationState.RELEASED) {
+            return false;
+        }
+        reservation.getRoom().release(reservation.getFrom(), reservation.getTo());
+        reservation.setState(ReservationState.RELEASED);
+        return true;
+    }
+
+    // Cheapest free rooms for every request, never the same room twice for overlapping nights; null if short
+    private List<Reservation> pickRooms(List<RoomRequest> requests) throws Hotel.HotelOperationException {
+        List<Reservation> picked = new ArrayList<>();
+        for (RoomRequest request : requests) {
+            int needed = request.getCount();
+            for (Room room : hotel.searchAvailableRooms(request.getType(), request.getFrom(), request.getTo())) {
+                if (needed == 0) {
+                    break;
+                }
+                if (!overlapsPicked(picked, room, request.getFrom(), request.getTo())) {
+                    picked.add(new Reservation(this, room, request.getFrom(), request.getTo()));
+                    needed--;
+                }
+            }
+            if (needed > 0) {
+                return null;
+            }
+        }
+        return picked;
+    }
+
+    private static boolean overlapsPicked(List<Reservation> picked, Room room, LocalDate from, LocalDate to) {
+        for (Reservation reservation : picked) {
+            if (reservation.getRoom().equals(room)
+                    && reservation.getFrom().isBefore(to) && from.isBefore(reservation.getTo())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Each room once, by room number
+    private static List<Room> lockOrder(List<Reservation> reservations) {
+        return reservations.stream()
+                .map(Reservation::getRoom)
+                .distinct()
+                .sorted(Comparator.comparingInt(Room::getRoomNumber))
+                .toList();
+    }
+
+    private static void lockAll(List<Room> order) {
+        for (Room room : order) {
+            room.getReservationLock().lock();
+        }
+    }
+
+    private static void unlockAll(List<Room> order) {
+        for (int i = order.size() - 1; i >= 0; i--) {
+            order.get(i).getReservationLock().unlock();
+        }
+    }
+
+    public Hotel getHotel() {
+        return hotel;
+    }
+}
+
+enum ReservationState {
+    HELD, CONFIRMED, RELEASED
+}
+
+enum ReservationStatus {
+    RESERVED, ALREADY_TAKEN, ROOM_NOT_FOUND, INVALID_REQUEST
+}
+
+class Reservation {
+    private final ReservationEngine engine;
+    private final Room room;
+    private final LocalDate from;
+    private final LocalDate to;
+    private volatile ReservationState state;
+
+    Reservation(ReservationEngine engine, Room room, LocalDate from, LocalDate to) {
+        this.engine = engine;
+        this.room = room;
+        this.from = from;
+        this.to = to;
+        this.state = ReservationState.HELD;
+    }
+
+    public Room getRoom() { return room; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public ReservationState getState() { return state; }
+    public boolean isActive() { return state != ReservationState.RELEASED; }
+
+    ReservationEngine getEngine() { return engine; }
+    void setState(ReservationState state) { this.state = state; }
+
+    @Override
+    public String toString() {
+        return "Room #" + room.getRoomNumber() + " " + from + " to " + to + " (" + state + ")";
+    }
+}
+
+class ReservationResult {
+    private final ReservationStatus status;
+    private final Reservation reservation;
+    private final String message;
+
+    private ReservationResult(ReservationStatus status, Reservation reservation, String message) {
+        this.status = status;
+        this.reservation = reservation;
+        this.message = message;
+    }
+
+    static ReservationResult reserved(Reservation reservation) {
+        return new ReservationResult(ReservationStatus.RESERVED, reservation, "Reserved " + reservation);
+    }
+
+    static ReservationResult failed(ReservationStatus status, String message) {
+        return new ReservationResult(status, null, message);
+    }
+
+    public boolean isReserved() { return status == ReservationStatus.RESERVED; }
+    public ReservationStatus getStatus() { return status; }
+    public Reservation getReservation() { return reservation; }
+    public String getMessage() { return message; }
+}
@@ -10,13 +10,20 @@ import java.util.Date;
     }
 }
 public class Review {
-   private int reviewId;
+   private final long reviewId;
     private Customer customer;
     private int rating; // must be between 1 and 5
     private String comment;
     private Date date;
+    private final RoomType roomType; // room type stayed in, may be null
+    private volatile Hotel hotel;    // set by Hotel.addReview so rating changes reach the aggregates
 
-    public Review(int reviewId, Customer customer, int rating, String comment, Date date)
+    public Review(Customer customer, int rating, String comment, Date date)
+            throws InvalidReviewException {
+        this(customer, null, rating, comment, date);
+    }
+
+    public Review(Customer customer, RoomType roomType, int rating, String comment, Date date)
             throws InvalidReviewException {
         if (rating < 1 || rating > 5) {
             throw new InvalidReviewException("Rating must be between 1 and 5.");
@@ -24,20 +31,19 @@ public class Review {
         if (comment == null || comment.trim().isEmpty()) {
             throw new InvalidReviewException("Comment cannot be empty.");
         }
-        this.reviewId = reviewId;
+        date = copy(date);
+        checkDate(date);
+        this.reviewId = IdGenerator.nextId();
         this.customer = customer;
         this.rating = rating;
         this.comment = comment;
         this.date = date;
+        this.roomType = roomType;
     }
-public int getReviewId() {
+public long getReviewId() {
     return reviewId;
 }
 
-public void setReviewId(int reviewId) {
-    this.reviewId = reviewId;
-}
-
 public Customer getCustomer() {
     return customer;
 }
@@ -54,7 +60,12 @@ public void setRating(int rating) throws InvalidReviewException {
     if (rating < 1 || rating > 5) {
         throw new InvalidReviewException("Rating must be between 1 and 5.");
     }
-    this.rating = rating;
+    Hotel owner = hotel;
+    if (owner != null) {
+        owner.updateReview(this, rating, date);
+    } else {
+        this.rating = rating;
+    }
 }
 
 public String getComment() {
@@ -65,15 +76,58 @@ public void setComment(String comment) throws InvalidReviewException {
     if (comment == null || comment.trim().isEmpty()) {
         throw new InvalidReviewException("Comment cannot be empty.");
     }
-    this.comment = comment;
+    Hotel owner = hotel;
+    if (owner != null) {
+        owner.updateReviewComment(this, comment);
+    } else {
+        this.comment = comment;
+    }
 }
 
 public Date getDate() {
-    return date;
+    return copy(date);
+}
+
+public void setDate(Date date) throws InvalidReviewException {
+    date = copy(date);
+    checkDate(date);
+    Hotel owner = hotel;
+    if (owner != null) {
+        owner.updateReview(this, rating, date);
+    } else {
+        this.date = date;
+    }
+}
+
+public RoomType getRoomType() {
+    return roomType;
+}
+
+// A future date would take a slot of the recent-ratings window and push out a day still in it
+private static void checkDate(Date date) throws InvalidReviewException {
+    if (date != null && date.getTime() > System.currentTimeMillis()) {
+        throw new InvalidReviewException("Review date cannot be in the future.");
+    }
+}
+
+/* Date is mutable and the date is part of the hotel's review feed key, so
+   a caller's Date is never kept or handed out; validate the copy, not theirs */
+private static Date copy(Date date) {
+    return date == null ? null : new Date(date.getTime());
+}
+
+// Called by Hotel under its write lock
+void apply(int rating, Date date) {
+    this.rating = rating;
+    this.date = copy(date);
+}
+
+void applyComment(String comment) {
+    this.comment = comment;
 }
 
-public void setDate(Date date) {
-    this.date = date;
+void setHotel(Hotel hotel) {
+    this.hotel = hotel;
 }
   
     public void displayReview() {
@@ -0,0 +1,182 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ Inverted index over review comments.
+ Comments are split into lower-cased letter/digit tokens; every term maps to
+ the reviews containing it and the positions it occurs at. Hotel keeps it in
+ step on addReview and Review.setComment, so a search only touches the
+ postings of the query terms instead of every comment.
+
+ search() ranks with BM25 (term frequency, rarity of the term across all
+ reviews, comment length). A query in double quotes is a phrase: the terms
+ must occur next to each other, which the positions answer without
+ re-reading the comment.
+ Safe for concurrent use: one writer at a time, searches run in parallel.
+*/
+public class ReviewIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Map<String, Map<Review, int[]>> postings = new HashMap<>();
+    private final Map<Review, Integer> lengths = new HashMap<>(); // tokens per indexed comment
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(Review review) {
+        lock.writeLock().lock();
+        try {
+            if (lengths.containsKey(review)) {
+                return;
+            }
+            List<String> tokens = tokenize(review.getComment());
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                positions.computeIfAbsent(tokens.get(i), t -> new ArrayList<>()).add(i);
+            }
+            for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                List<Integer> list = entry.getValue();
+                int[] array = new int[list.size()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = list.get(i);
+                }
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(review, array);
+            }
+            lengths.put(review, tokens.size());
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Review review) {
+        lock.writeLock().lock();
+        try {
+            Integer length = lengths.remove(review);
+            if (length == null) {
+                return;
+            }
+            totalLength -= length;
+            for (String term : new LinkedHashSet<>(tokenize(review.getComment()))) {
+                Map<Review, int[]> docs = postings.get(term);
+                if (docs != null && docs.remove(review) != null && docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return lengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best matches first, at most limit of them
+    public List<Review> search(String query, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        String trimmed = query.trim();
+        boolean phrase = trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"");
+        List<String> terms = tokenize(trimmed);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Review, Double> scores = new HashMap<>();
+            double averageLength = lengths.isEmpty() ? 1 : (double) totalLength / lengths.size();
+            for (String term : new LinkedHashSet<>(terms)) {
+                Map<Review, int[]> docs = postings.get(term);
+                if (docs == null) {
+                    if (phrase) return Collections.emptyList();
+                    continue;
+                }
+                double idf = Math.log(1 + (lengths.size() - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Review, int[]> doc : docs.entrySet()) {
+                    int tf = doc.getValue().length;
+                    double norm = K1 * (1 - B + B * lengths.get(doc.getKey()) / averageLength);
+                    scores.merge(doc.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+            PriorityQueue<Map.Entry<Review, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Review, Double> entry : scores.entrySet()) {
+                if (phrase && !containsPhrase(entry.getKey(), terms)) {
+                    continue;
+                }
+                top.add(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Review> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(top.poll().getKey());
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Some occurrence of terms[0] at p has terms[i] at p + i for every i
+    private boolean containsPhrase(Review review, List<String> terms) {
+        int[] first = positionsOf(terms.get(0), review);
+        for (int start : first) {
+            boolean match = true;
+            for (int i = 1; i < terms.size() && match; i++) {
+                match = Arrays.binarySearch(positionsOf(terms.get(i), review), start + i) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] positionsOf(String term, Review review) {
+        Map<Review, int[]> docs = postings.get(term);
+        int[] positions = docs == null ? null : docs.get(review);
+        return positions == null ? NO_POSITIONS : positions;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,89 @@
+package app;
+
+
+
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/*
+ Position in the review feed: the (date, reviewId) of a review. The feed is
+ ordered newest first, the id breaks ties between reviews of the same
+ instant, so every review has exactly one place and a cursor stays valid
+ while reviews are added in front of it. Reviews without a date sort last.
+ As a string (for HTTP) it is "<millis>.<id>".
+*/
+final class ReviewCursor implements Comparable<ReviewCursor> {
+    static final Comparator<ReviewCursor> NEWEST_FIRST = Comparator
+            .comparingLong((ReviewCursor c) -> c.dateMillis).reversed()
+            .thenComparing(Comparator.comparingLong((ReviewCursor c) -> c.reviewId).reversed());
+
+    private final long dateMillis;
+    private final long reviewId;
+
+    ReviewCursor(long dateMillis, long reviewId) {
+        this.dateMillis = dateMillis;
+        this.reviewId = reviewId;
+    }
+
+    static ReviewCursor of(Review review) {
+        Date date = review.getDate();
+        return new ReviewCursor(date == null ? Long.MIN_VALUE : date.getTime(), review.getReviewId());
+    }
+
+    public static ReviewCursor parse(String text) {
+        if (text == null) throw new IllegalArgumentException("Cursor cannot be null");
+        int dot = text.indexOf('.');
+        if (dot < 0) throw new IllegalArgumentException("Invalid cursor: " + text);
+        try {
+            return new ReviewCursor(Long.parseLong(text.substring(0, dot)), Long.parseLong(text.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + text);
+        }
+    }
+
+    @Override
+    public int compareTo(ReviewCursor other) {
+        return NEWEST_FIRST.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ReviewCursor)) return false;
+        ReviewCursor other = (ReviewCursor) o;
+        return dateMillis == other.dateMillis && reviewId == other.reviewId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(dateMillis) * 31 + Long.hashCode(reviewId);
+    }
+
+    @Override
+    public String toString() {
+        return dateMillis + "." + reviewId;
+    }
+}
+
+/*
+ One page of the feed, newest first. next is the cursor to pass for the
+ following (older) page and previous for the one before it (newer); either
+ is null at that end of the feed.
+*/
+public class ReviewPage {
+    private final List<Review> reviews;
+    private final ReviewCursor previous;
+    private final ReviewCursor next;
+
+    ReviewPage(List<Review> reviews, ReviewCursor previous, ReviewCursor next) {
+        this.reviews = Collections.unmodifiableList(reviews);
+        this.previous = previous;
+        this.next = next;
+    }
+
+    public List<Review> getReviews() { return reviews; }
+    public ReviewCursor getPrevious() { return previous; }
+    public ReviewCursor getNext() { return next; }
+}
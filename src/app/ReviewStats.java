@@ -0,0 +1,139 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+/*
+ Snapshot of the rating aggregates of a hotel (or one room type of it):
+ totals, the 1-5 star histogram and the last 30 days.
+ Taking one is O(1), the aggregates are kept up to date on every review
+ insert or rating change (see ReviewAggregate).
+*/
+public class ReviewStats {
+    public static final int WINDOW_DAYS = 30;
+
+    private final long count;
+    private final long sum;
+    private final long[] histogram; // index 0 = 1 star
+    private final long recentCount;
+    private final long recentSum;
+
+    ReviewStats(long count, long sum, long[] histogram, long recentCount, long recentSum) {
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram;
+        this.recentCount = recentCount;
+        this.recentSum = recentSum;
+    }
+
+    public long getCount() { return count; }
+    public long getSum() { return sum; }
+    public long getRecentCount() { return recentCount; }
+    public long getRecentSum() { return recentSum; }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Average over the reviews dated within the last WINDOW_DAYS days
+    public double getRecentAverage() {
+        return recentCount == 0 ? 0 : (double) recentSum / recentCount;
+    }
+
+    public long getCount(int stars) {
+        if (stars < 1 || stars > 5) throw new IllegalArgumentException("Rating must be between 1 and 5.");
+        return histogram[stars - 1];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f/5 from %d reviews (%.1f/5 from %d in the last %d days)",
+                getAverage(), count, getRecentAverage(), recentCount, WINDOW_DAYS);
+    }
+}
+
+/*
+ Running rating aggregates. Not thread-safe on its own: Hotel changes it
+ under its write lock and snapshots it inside an optimistic read.
+ The rolling window is a ring of WINDOW_DAYS daily buckets indexed by
+ epoch day; a bucket belongs to the day it was last written for, so stale
+ days are skipped when summing and overwritten when their slot comes round
+ again.
+*/
+class ReviewAggregate {
+    private long count;
+    private long sum;
+    private final long[] histogram = new long[5];
+    private final long[] bucketDay = new long[ReviewStats.WINDOW_DAYS];
+    private final long[] bucketCount = new long[ReviewStats.WINDOW_DAYS];
+    private final long[] bucketSum = new long[ReviewStats.WINDOW_DAYS];
+
+    ReviewAggregate() {
+        Arrays.fill(bucketDay, Long.MIN_VALUE);
+    }
+
+    void add(int rating, Date date) {
+        count++;
+        sum += rating;
+        histogram[rating - 1]++;
+        if (date == null) {
+            return;
+        }
+        long day = epochDay(date);
+        int slot = slot(day);
+        if (bucketDay[slot] < day) { // slot still holds a day that has left the window
+            bucketDay[slot] = day;
+            bucketCount[slot] = 0;
+            bucketSum[slot] = 0;
+        }
+        if (bucketDay[slot] == day) {
+            bucketCount[slot]++;
+            bucketSum[slot] += rating;
+        }
+    }
+
+    void remove(int rating, Date date) {
+        count--;
+        sum -= rating;
+        histogram[rating - 1]--;
+        if (date == null) {
+            return;
+        }
+        long day = epochDay(date);
+        int slot = slot(day);
+        if (bucketDay[slot] == day) {
+            bucketCount[slot]--;
+            bucketSum[slot] -= rating;
+        }
+    }
+
+    ReviewStats snapshot(long today) {
+        long recentCount = 0;
+        long recentSum = 0;
+        for (int i = 0; i < bucketDay.length; i++) {
+            long day = bucketDay[i];
+            if (day <= today && day > today - ReviewStats.WINDOW_DAYS) {
+                recentCount += bucketCount[i];
+                recentSum += bucketSum[i];
+            }
+        }
+        return new ReviewStats(count, sum, histogram.clone(), recentCount, recentSum);
+    }
+
+    static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    private static long epochDay(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) ReviewStats.WINDOW_DAYS);
+    }
+}
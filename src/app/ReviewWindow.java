@@ -0,0 +1,90 @@
+package app;
+
+
+
+
+import java.util.ArrayDeque;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/*
+ The part of the review feed the Reviews tab holds: at most maxPages pages
+ of pageSize reviews, in the list the ListView shows. Reaching the bottom
+ loads the next page and drops the page at the top, reaching the top does
+ the reverse, so memory stays bounded however many reviews the hotel has.
+ Pages are fetched by cursor (Hotel.getReviewPage), each costs O(log n +
+ pageSize). FX thread only.
+*/
+class ReviewWindow {
+    private final Hotel hotel;
+    private final int pageSize;
+    private final int maxPages;
+    private final ObservableList<Review> items = FXCollections.observableArrayList();
+    private final ArrayDeque<ReviewPage> pages = new ArrayDeque<>(); // the pages in items, top to bottom
+
+    ReviewWindow(Hotel hotel, int pageSize, int maxPages) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        if (maxPages < 2) throw new IllegalArgumentException("At least two pages must be kept");
+        this.hotel = hotel;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    ObservableList<Review> getItems() {
+        return items;
+    }
+
+    // Back to the newest page
+    void reset() {
+        ReviewPage first = hotel.getReviewPage(null, pageSize);
+        pages.clear();
+        pages.add(first);
+        items.setAll(first.getReviews());
+    }
+
+    boolean isAtTop() {
+        return pages.isEmpty() || pages.peekFirst().getPrevious() == null;
+    }
+
+    boolean hasNext() {
+        return !pages.isEmpty() && pages.peekLast().getNext() != null;
+    }
+
+    // Appends the next page; returns how many reviews were dropped from the top
+    int loadNext() {
+        if (!hasNext()) {
+            return 0;
+        }
+        ReviewPage page = hotel.getReviewPage(pages.peekLast().getNext(), pageSize);
+        if (page.getReviews().isEmpty()) {
+            return 0;
+        }
+        pages.addLast(page);
+        items.addAll(page.getReviews());
+        int dropped = 0;
+        if (pages.size() > maxPages) {
+            dropped = pages.removeFirst().getReviews().size();
+            items.remove(0, dropped);
+        }
+        return dropped;
+    }
+
+    // Prepends the previous page; returns how many reviews were added at the top
+    int loadPrevious() {
+        if (isAtTop()) {
+            return 0;
+        }
+        ReviewPage page = hotel.getReviewPageBefore(pages.peekFirst().getPrevious(), pageSize);
+        if (page.getReviews().isEmpty()) {
+            reset(); // everything newer is gone, start over
+            return 0;
+        }
+        pages.addFirst(page);
+        items.addAll(0, page.getReviews());
+        if (pages.size() > maxPages) {
+            int dropped = pages.removeLast().getReviews().size();
+            items.remove(items.size() - dropped, items.size());
+        }
+        return page.getReviews().size();
+    }
+}
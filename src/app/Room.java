@@ -3,87 +3,186 @@ package app;
 
 
 
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class Room {
     private final int roomNumber;
     private String type; // "Single", "Double", "Suite"
-    private double price;
-    private boolean isAvailable;
+    private final RoomType roomType;
+    private volatile long priceCents;
+    private volatile boolean isAvailable;
     private final int capacity;
+    private final RoomSchedule schedule = new RoomSchedule();
+    private final ReentrantLock reservationLock = new ReentrantLock(); // ReservationEngine's transitions for this room
+    private volatile Hotel hotel; // set while the room is registered, keeps the hotel's price index in sync
 
-    public Room(int roomNumber, String type, double price, boolean isAvailable, int capacity) {
+    public Room(int roomNumber, String type, long priceCents, boolean isAvailable, int capacity) {
         if (roomNumber <= 0) throw new IllegalArgumentException("Room number must be positive");
-        if (price < 0) throw new IllegalArgumentException("Price cannot be negative");
+        if (priceCents < 0) throw new IllegalArgumentException("Price cannot be negative");
         if (type == null || type.trim().isEmpty()) throw new IllegalArgumentException("Room type cannot be empty");
         if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
 
         this.roomNumber = roomNumber;
-        this.type = type.trim();
-        this.price = price;
+        this.roomType = RoomType.fromLabel(type);
+        this.type = roomType.getLabel();
+        this.priceCents = priceCents;
         this.isAvailable = isAvailable;
         this.capacity = capacity;
     }
 
     // New methods for room booking management
     public void book() {
-        if (!isAvailable) {
-            throw new IllegalStateException("Room #" + roomNumber + " is already booked");
+        boolean before, after;
+        synchronized (this) {
+            if (!isAvailable) {
+                throw new IllegalStateException("Room #" + roomNumber + " is already booked");
+            }
+            before = isAvailable();
+            this.isAvailable = false;
+            after = isAvailable();
         }
-        this.isAvailable = false;
+        availabilityChanged(before, after);
     }
 
     public void checkout() {
-        if (isAvailable) {
-            throw new IllegalStateException("Room #" + roomNumber + " is not currently booked");
+        boolean before, after;
+        synchronized (this) {
+            if (isAvailable) {
+                throw new IllegalStateException("Room #" + roomNumber + " is not currently booked");
+            }
+            before = isAvailable();
+            this.isAvailable = true;
+            after = isAvailable();
+        }
+        availabilityChanged(before, after);
+    }
+
+    // Date-range availability (stays are [from, to) in nights)
+    public boolean isAvailable(LocalDate from, LocalDate to) {
+        return isAvailable && schedule.isFree(from, to);
+    }
+
+    boolean isAvailable(long fromDay, long toDay) {
+        return isAvailable && schedule.isFree(fromDay, toDay);
+    }
+
+    public boolean reserve(LocalDate from, LocalDate to) {
+        boolean before, after;
+        synchronized (this) {
+            before = isAvailable();
+            if (!isAvailable || !schedule.reserve(from, to)) {
+                return false;
+            }
+            after = isAvailable();
+        }
+        availabilityChanged(before, after);
+        return true;
+    }
+
+    public boolean release(LocalDate from, LocalDate to) {
+        boolean before, after;
+        synchronized (this) {
+            before = isAvailable();
+            if (!schedule.release(from, to)) {
+                return false;
+            }
+            after = isAvailable();
+        }
+        availabilityChanged(before, after);
+        return true;
+    }
+
+    /* Every change to isAvailable() happens under this room's monitor, so
+       before/after are read there as one transition; listeners are called
+       after it is released. Only stays that include today change it. */
+    private void availabilityChanged(boolean before, boolean after) {
+        Hotel owner = hotel;
+        if (owner != null && before != after) {
+            owner.fireAvailabilityChanged(this, after);
         }
-        this.isAvailable = true;
     }
 
+    ReentrantLock getReservationLock() { return reservationLock; }
+
     // Getters
     public int getRoomNumber() { return roomNumber; }
     public String getType() { return type; }
-    public double getPrice() { return price; }
-    public boolean isAvailable() { return isAvailable; }
+    public RoomType getRoomType() { return roomType; }
+    public long getPriceCents() { return priceCents; }
+    public double getPrice() { return Money.toUnits(priceCents); } // for display only
+    public boolean isAvailable() { return isAvailable && !schedule.isOccupied(LocalDate.now()); }
     public int getCapacity() { return capacity; }
 
     // Setters
-    public void setAvailable(boolean available) { isAvailable = available; }
-    public void setPrice(double price) {
-        if (price < 0) throw new IllegalArgumentException("Price cannot be negative");
-        this.price = price;
+    public void setAvailable(boolean available) {
+        boolean before, after;
+        synchronized (this) {
+            before = isAvailable();
+            isAvailable = available;
+            after = isAvailable();
+        }
+        availabilityChanged(before, after);
     }
+    public void setPrice(long priceCents) {
+        if (priceCents < 0) throw new IllegalArgumentException("Price cannot be negative");
+        Hotel owner = hotel;
+        if (owner != null) {
+            owner.updateRoomPrice(this, priceCents);
+        } else {
+            this.priceCents = priceCents;
+        }
+    }
+
+    void applyPrice(long priceCents) { this.priceCents = priceCents; }
+
+    void setHotel(Hotel hotel) { this.hotel = hotel; }
 
     
     public int compareTo(Room other) {
-        return Double.compare(this.price, other.price);
+        return Long.compare(this.priceCents, other.priceCents);
+    }
+
+    // Room numbers are unique within a hotel, so they identify a room
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Room)) return false;
+        return roomNumber == ((Room) o).roomNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(roomNumber);
     }
 
     @Override
     public String toString() {
-        return String.format("Room #%d - %s - $%.2f - %s - Capacity: %d",
+        return String.format("Room #%d - %s - %s - %s - Capacity: %d",
                 roomNumber,
                 type,
-                price,
-                isAvailable ? "Available" : "Occupied",
+                Money.format(priceCents),
+                isAvailable() ? "Available" : "Occupied",
                 capacity);
     }
 }
  class SingleRoom extends Room {
     private static final int CAPACITY = 1;
 
-    public SingleRoom(int roomNumber, double price, boolean isAvailable) {
-        super(roomNumber, "Single", price, isAvailable, CAPACITY);
+    public SingleRoom(int roomNumber, long priceCents, boolean isAvailable) {
+        super(roomNumber, "Single", priceCents, isAvailable, CAPACITY);
     }
 }
 class DoubleRoom extends Room {
     private static final int CAPACITY = 2;
 
-    public DoubleRoom(int roomNumber, double price, boolean isAvailable) {
-        super(roomNumber, "Double", price, isAvailable, CAPACITY);
+    public DoubleRoom(int roomNumber, long priceCents, boolean isAvailable) {
+        super(roomNumber, "Double", priceCents, isAvailable, CAPACITY);
     }
 }class SuiteRoom extends Room {
     private static final int CAPACITY = 4;
 
-    public SuiteRoom(int roomNumber, double price, boolean isAvailable) {
-        super(roomNumber, "Suite", price, isAvailable, CAPACITY);
+    public SuiteRoom(int roomNumber, long priceCents, boolean isAvailable) {
+        super(roomNumber, "Suite", priceCents, isAvailable, CAPACITY);
     }
 }
\ No newline at end of file
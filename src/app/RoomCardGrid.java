@@ -0,0 +1,244 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/*
+ Room cards laid out in rows, rendered from an ObservableList<Room>.
+ - Virtualized: the rows are the items of a ListView, so only the rows in
+   view have cells and cards; scrolling through thousands of rooms reuses a
+   screenful of nodes.
+ - Keyed: cards are cached by room number (LRU, a few screens' worth) and
+   re-attached to whichever row shows the room. A card only rewrites the
+   labels whose text changed.
+ - Incremental: list changes are applied as deltas; rooms removed from the
+   list drop their card, and if rows shifted only the cells in view are
+   re-rendered. patch() turns a fresh query result into such deltas
+   instead of a setAll.
+ FX thread only.
+*/
+class RoomCardGrid {
+    private static final double CARD_WIDTH = 250;
+    private static final double GAP = 20;
+    private static final int MAX_CACHED_CARDS = 256;
+
+    private final ObservableList<Room> rooms;
+    private final Consumer<Room> onBook;
+    private final ObservableList<Integer> rows = FXCollections.observableArrayList(); // row indexes
+    private final ListView<Integer> view = new ListView<>(rows);
+    private final Map<Integer, RoomCard> cards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, RoomCard> eldest) {
+            return size() > MAX_CACHED_CARDS && eldest.getValue().card.getParent() == null;
+        }
+    };
+    private int columns = 1;
+
+    RoomCardGrid(ObservableList<Room> rooms, Consumer<Room> onBook) {
+        this.rooms = rooms;
+        this.onBook = onBook;
+        view.setStyle("-fx-background-color: transparent;");
+        view.setFocusTraversable(false);
+        view.setCellFactory(param -> new RowCell());
+        view.widthProperty().addListener((obs, oldWidth, width) -> {
+            int fit = Math.max(1, (int) ((width.doubleValue() - GAP) / (CARD_WIDTH + GAP)));
+            if (fit != columns) {
+                columns = fit;
+                resizeRows(0);
+            }
+        });
+        rooms.addListener(this::onChanged);
+        resizeRows(0);
+    }
+
+    ListView<Integer> getView() {
+        return view;
+    }
+
+    // Re-reads the rooms behind the cached cards, e.g. after a price change
+    void refresh() {
+        for (RoomCard card : cards.values()) {
+            card.show(card.room);
+        }
+    }
+
+    /*
+     Makes target equal to fresh with as few list changes as possible,
+     matching rooms by number: rooms gone are removed, new ones inserted at
+     their position, the rest left in place.
+    */
+    static void patch(ObservableList<Room> target, List<Room> fresh) {
+        Set<Integer> keep = new HashSet<>();
+        for (Room room : fresh) {
+            keep.add(room.getRoomNumber());
+        }
+        target.removeIf(room -> !keep.contains(room.getRoomNumber()));
+        for (int i = 0; i < fresh.size(); i++) {
+            Room room = fresh.get(i);
+            if (i < target.size() && target.get(i).getRoomNumber() == room.getRoomNumber()) {
+                if (target.get(i) != room) {
+                    target.set(i, room);
+                }
+                continue;
+            }
+            for (int j = i + 1; j < target.size(); j++) { // moved: take it out of its old place
+                if (target.get(j).getRoomNumber() == room.getRoomNumber()) {
+                    target.remove(j);
+                    break;
+                }
+            }
+            target.add(i, room);
+        }
+        if (target.size() > fresh.size()) {
+            target.remove(fresh.size(), target.size());
+        }
+    }
+
+    private void onChanged(ListChangeListener.Change<? extends Room> change) {
+        int from = Integer.MAX_VALUE;
+        List<Room> removed = new ArrayList<>();
+        while (change.next()) {
+            from = Math.min(from, change.getFrom());
+            removed.addAll(change.getRemoved());
+            if (change.wasReplaced() || change.wasUpdated() || change.wasAdded()) {
+                for (Room room : rooms.subList(change.getFrom(), change.getTo())) {
+                    RoomCard card = cards.get(room.getRoomNumber());
+                    if (card != null) {
+                        card.show(room);
+                    }
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            Set<Integer> present = new HashSet<>();
+            for (Room room : rooms) {
+                present.add(room.getRoomNumber());
+            }
+            for (Room room : removed) {
+                RoomCard card = present.contains(room.getRoomNumber()) ? null : cards.remove(room.getRoomNumber());
+                if (card != null && card.card.getParent() instanceof HBox) {
+                    ((HBox) card.card.getParent()).getChildren().remove(card.card);
+                }
+            }
+        }
+        if (from != Integer.MAX_VALUE) {
+            resizeRows(from / columns);
+        }
+    }
+
+    // Row count follows the room count; rows from firstRow on show other rooms now
+    private void resizeRows(int firstRow) {
+        int count = (rooms.size() + columns - 1) / columns;
+        if (rows.size() > count) {
+            rows.remove(count, rows.size());
+        }
+        boolean shifted = firstRow < rows.size(); // existing rows now show other rooms
+        for (int row = rows.size(); row < count; row++) {
+            rows.add(row);
+        }
+        if (shifted) {
+            view.refresh(); // re-renders the cells in view only, whatever the number of rows
+        }
+    }
+
+    private RoomCard cardFor(Room room) {
+        RoomCard card = cards.get(room.getRoomNumber());
+        if (card == null) {
+            card = new RoomCard();
+            cards.put(room.getRoomNumber(), card);
+        }
+        card.show(room);
+        return card;
+    }
+
+    private class RowCell extends ListCell<Integer> {
+        private final HBox row = new HBox(GAP);
+
+        RowCell() {
+            row.setAlignment(Pos.CENTER);
+            row.setPadding(new Insets(GAP / 2, 0, GAP / 2, 0));
+            setStyle("-fx-background-color: transparent;");
+        }
+
+        @Override
+        protected void updateItem(Integer index, boolean empty) {
+            super.updateItem(index, empty);
+            row.getChildren().clear();
+            if (empty || index == null) {
+                setGraphic(null);
+                return;
+            }
+            int end = Math.min(rooms.size(), (index + 1) * columns);
+            for (int i = index * columns; i < end; i++) {
+                row.getChildren().add(cardFor(rooms.get(i)).card);
+            }
+            setGraphic(row);
+        }
+    }
+
+    private class RoomCard {
+        final VBox card = new VBox(10);
+        final Label roomLabel = new Label();
+        final Label typeLabel = new Label();
+        final Label priceLabel = new Label();
+        final Label capacityLabel = new Label();
+        final Label statusLabel = new Label();
+        final Button bookButton = new Button("Book Now");
+        Room room;
+
+        RoomCard() {
+            card.setPadding(new Insets(15));
+            card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-border-radius: 10; " +
+                         "-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 5, 0, 0);");
+            card.setPrefWidth(CARD_WIDTH);
+            roomLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+            roomLabel.setTextFill(Color.web("#3a4a6d"));
+            bookButton.setStyle("-fx-background-color: #4a47a3; -fx-text-fill: white;");
+            bookButton.setOnAction(e -> onBook.accept(room));
+            card.getChildren().addAll(roomLabel, typeLabel, priceLabel, capacityLabel, statusLabel, bookButton);
+        }
+
+        void show(Room room) {
+            this.room = room;
+            set(roomLabel, "Room #" + room.getRoomNumber());
+            set(typeLabel, "Type: " + room.getType());
+            set(priceLabel, "Price: " + Money.format(room.getPriceCents()) + "/night");
+            set(capacityLabel, "Capacity: " + room.getCapacity() + " person(s)");
+            if (set(statusLabel, room.isAvailable() ? "Available" : "Occupied")) {
+                statusLabel.setTextFill(room.isAvailable() ? Color.GREEN : Color.RED);
+                bookButton.setDisable(!room.isAvailable());
+            }
+        }
+
+        // Only touches the label (and so layout) when the text differs
+        private boolean set(Label label, String text) {
+            if (text.equals(label.getText())) {
+                return false;
+            }
+            label.setText(text);
+            return true;
+        }
+    }
+}
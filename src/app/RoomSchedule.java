@@ -0,0 +1,97 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+ Keeps the stays booked for one room, ordered by check-in date.
+ A stay covers the nights [checkIn, checkOut), so a guest can check in on
+ the same day the previous guest checks out.
+ The stays map records which exact ranges were booked (so a release has to
+ match a reservation), while availability questions are answered by the
+ per-night bitmap in OccupancyCalendar.
+ Availability checks are optimistic reads of the bitmap; reserve/release
+ take the write lock, so check-and-mark is atomic per room.
+*/
+class RoomSchedule {
+    private final TreeMap<LocalDate, LocalDate> stays = new TreeMap<>();
+    private final OccupancyCalendar nights = new OccupancyCalendar();
+    private final StampedLock lock = new StampedLock();
+
+    public boolean isFree(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return isFree(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public boolean isFree(long fromDay, long toDay) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                boolean free = nights.isFree(fromDay, toDay);
+                if (lock.validate(stamp)) {
+                    return free;
+                }
+            } catch (RuntimeException e) {
+                // the calendar was being resized, retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return nights.isFree(fromDay, toDay);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isOccupied(LocalDate night) {
+        long day = night.toEpochDay();
+        return !isFree(day, day + 1);
+    }
+
+    public boolean reserve(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        long stamp = lock.writeLock();
+        try {
+            if (!nights.isFree(from.toEpochDay(), to.toEpochDay())) {
+                return false;
+            }
+            nights.mark(from.toEpochDay(), to.toEpochDay()); // may throw; nothing is recorded then
+            stays.put(from, to);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean release(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        long stamp = lock.writeLock();
+        try {
+            if (!stays.remove(from, to)) {
+                return false;
+            }
+            nights.clear(from.toEpochDay(), to.toEpochDay());
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int getStayCount() {
+        long stamp = lock.readLock();
+        try {
+            return stays.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new IllegalArgumentException("Dates cannot be null");
+        if (!from.isBefore(to)) throw new IllegalArgumentException("Check-in date must be before check-out date");
+    }
+}
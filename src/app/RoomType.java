@@ -0,0 +1,36 @@
+package app;
+
+
+
+
+public enum RoomType {
+    SINGLE("Single"),
+    DOUBLE("Double"),
+    SUITE("Suite");
+
+    private final String label;
+
+    RoomType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static RoomType fromLabel(String label) throws IllegalArgumentException {
+        if (label == null || label.trim().isEmpty()) throw new IllegalArgumentException("Room type cannot be empty");
+        String trimmed = label.trim();
+        for (RoomType type : values()) {
+            if (type.label.equalsIgnoreCase(trimmed)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown room type: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
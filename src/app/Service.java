@@ -12,31 +12,35 @@ public abstract class Service {
     protected int serviceId;
     protected String name;
     protected String description;
-    protected double price;
+    protected long priceCents;
 
-    public Service(int serviceId, String name, String description, double price) throws InvalidServiceException {
-        if (price < 0) {
+    public Service(int serviceId, String name, String description, long priceCents) throws InvalidServiceException {
+        if (priceCents < 0) {
             throw new InvalidServiceException("Price cannot be negative for service: " + name);
         }
         this.serviceId = serviceId;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = priceCents;
     }
 
-    public abstract double useService();
+    // What the service costs in cents; pure, safe to call on every price recalculation
+    public abstract long quote();
+
+    // Actually delivers the service to the guest and returns its charge in cents
+    public abstract long useService();
 
     public void displayDetails() {
-        System.out.println("[" + name + "] " + description + " - $" + price);
+        System.out.println("[" + name + "] " + description + " - " + Money.format(priceCents));
     }
 
 }
 class RoomService extends Service {
      String mealType;
 
-    public RoomService(int serviceId, String name, String description, double price, String mealType)
+    public RoomService(int serviceId, String name, String description, long priceCents, String mealType)
             throws InvalidServiceException {
-        super(serviceId, name, description, price);
+        super(serviceId, name, description, priceCents);
         if (mealType == null || mealType.isEmpty()) {
             throw new InvalidServiceException("Meal type must not be empty.");
         }
@@ -44,17 +48,23 @@ class RoomService extends Service {
     }
 
     @Override
-    public double useService() {
+    public long quote() {
+        return priceCents;
+    }
+
+    @Override
+    public long useService() {
         System.out.println("Room Service: Serving " + mealType);
-        return price;
+        return quote();
     }
 }
 class LaundryService extends Service {
+    private static final long PER_ITEM_CENTS = 150;
      int clothesCount;
 
-    public LaundryService(int serviceId, String name, String description, double price, int clothesCount)
+    public LaundryService(int serviceId, String name, String description, long priceCents, int clothesCount)
             throws InvalidServiceException {
-        super(serviceId, name, description, price);
+        super(serviceId, name, description, priceCents);
         if (clothesCount < 0) {
             throw new InvalidServiceException("Clothes count must be non-negative.");
         }
@@ -62,17 +72,22 @@ class LaundryService extends Service {
     }
 
     @Override
-    public double useService() {
+    public long quote() {
+        return priceCents + (clothesCount * PER_ITEM_CENTS);
+    }
+
+    @Override
+    public long useService() {
         System.out.println("Laundry Service: Washing " + clothesCount + " clothes");
-        return price + (clothesCount * 1.5);
+        return quote();
     }
 }
 class SpaService extends Service {
      String spaPackage;
 
-    public SpaService(int serviceId, String name, String description, double price, String spaPackage)
+    public SpaService(int serviceId, String name, String description, long priceCents, String spaPackage)
             throws InvalidServiceException {
-        super(serviceId, name, description, price);
+        super(serviceId, name, description, priceCents);
         if (spaPackage == null || spaPackage.isEmpty()) {
             throw new InvalidServiceException("Spa package must not be empty.");
         }
@@ -80,8 +95,13 @@ class SpaService extends Service {
     }
 
     @Override
-    public double useService() {
+    public long quote() {
+        return priceCents;
+    }
+
+    @Override
+    public long useService() {
         System.out.println("Spa Service: Providing " + spaPackage + " package");
-        return price;
+        return quote();
     }
 }
\ No newline at end of file
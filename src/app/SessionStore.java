@@ -0,0 +1,125 @@
+package app;
+
+
+
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Login sessions.
+ login() checks the password hash once and hands out an opaque random token
+ (256 bits); every later request is authenticated with validate(), a single
+ ConcurrentHashMap lookup that never touches the hash or the clock-driven
+ bookkeeping of other sessions.
+ Idle expiry runs on a TimingWheel: each session has one timer at
+ lastAccess + idle timeout. validate() only bumps lastAccess, and when the
+ timer fires it either removes the session or re-arms itself for the new
+ deadline, so active sessions cost nothing per request and idle ones are
+ dropped in bulk as the wheel turns.
+*/
+public class SessionStore {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final TimingWheel wheel;
+    private final long idleMillis;
+
+    public SessionStore(long idleTimeout, TimeUnit unit) {
+        this(idleTimeout, unit, new TimingWheel("sessions", 1, TimeUnit.SECONDS, 512));
+    }
+
+    public SessionStore(long idleTimeout, TimeUnit unit, TimingWheel wheel) {
+        if (idleTimeout <= 0) throw new IllegalArgumentException("Idle timeout must be positive");
+        if (wheel == null) throw new IllegalArgumentException("Timing wheel cannot be null");
+        this.idleMillis = unit.toMillis(idleTimeout);
+        this.wheel = wheel;
+    }
+
+    public String login(User user, String password) throws AuthenticationException {
+        if (user == null || !user.login(password)) {
+            throw new AuthenticationException("Invalid username or password");
+        }
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, user, System.currentTimeMillis());
+        sessions.put(token, session);
+        arm(session);
+        return token;
+    }
+
+    // The user behind the token, or null for an unknown or expired token
+    public User validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - session.lastAccess >= idleMillis) { // idle but its timer has not fired yet
+            expire(session);
+            return null;
+        }
+        session.lastAccess = now;
+        return session.user;
+    }
+
+    public void logout(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session != null) {
+            session.user.logout();
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    private void arm(Session session) {
+        wheel.scheduleAt(() -> check(session), session.lastAccess + idleMillis);
+    }
+
+    private void check(Session session) {
+        if (sessions.get(session.token) != session) {
+            return; // logged out
+        }
+        if (System.currentTimeMillis() - session.lastAccess >= idleMillis) {
+            expire(session);
+        } else {
+            arm(session);
+        }
+    }
+
+    private void expire(Session session) {
+        if (sessions.remove(session.token, session)) {
+            session.user.logout();
+        }
+    }
+
+    private static final class Session {
+        final String token;
+        final User user;
+        volatile long lastAccess;
+
+        Session(String token, User user, long lastAccess) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    public static class AuthenticationException extends Exception {
+        public AuthenticationException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Hashed timing wheel: tasks are hashed by deadline into a ring of buckets
+ and one daemon thread advances the ring a bucket per tick, so scheduling and
+ cancelling are O(1) no matter how many timers are pending. Deadlines further
+ away than one turn of the wheel wait a number of extra rounds.
+ Deadlines are wall-clock millis (offers and sessions expire at calendar
+ instants); a task runs on the first tick at or after its deadline, so the
+ tick duration is the precision. Tasks run on the wheel thread and must be
+ short; an exception from one is counted (getHandlerFailures) and passed
+ to the ErrorHandler, if any, and the wheel carries on.
+ The thread is started by the first schedule call.
+*/
+public class TimingWheel {
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final String name;
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicLong handlerFailures = new AtomicLong();
+    private volatile ErrorHandler errorHandler;
+    private volatile boolean stopped;
+    private Thread worker;
+    private long tick; // worker thread only
+
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("Tick duration must be positive");
+        if (wheelSize <= 0 || wheelSize > (1 << 20)) throw new IllegalArgumentException("Wheel size must be between 1 and 2^20");
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.name = name;
+        this.tickMillis = Math.max(1, unit.toMillis(tickDuration));
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduleAt(task, System.currentTimeMillis() + unit.toMillis(Math.max(0, delay)));
+    }
+
+    public Timeout scheduleAt(Runnable task, long deadlineMillis) {
+        if (task == null) throw new IllegalArgumentException("Task cannot be null");
+        if (stopped) throw new IllegalStateException("Timing wheel " + name + " is stopped");
+        start();
+        Timeout timeout = new Timeout(task, deadlineMillis);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public interface ErrorHandler {
+        // Called on the wheel thread
+        void onError(String wheel, Exception e);
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // Exceptions thrown by tasks so far
+    public long getHandlerFailures() {
+        return handlerFailures.get();
+    }
+
+    public void stop() {
+        stopped = true;
+        Thread thread;
+        synchronized (this) {
+            thread = worker;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::run, name + "-timer");
+            thread.setDaemon(true);
+            synchronized (this) {
+                worker = thread;
+            }
+            thread.start();
+        }
+    }
+
+    private void run() {
+        long startMillis = System.currentTimeMillis();
+        while (!stopped) {
+            long nextTick = startMillis + (tick + 1) * tickMillis;
+            long sleep = nextTick - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (stopped) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            transferPending(startMillis);
+            for (Timeout expired : wheel[(int) (tick & mask)].expire(now)) {
+                try {
+                    expired.task.run();
+                } catch (RuntimeException e) {
+                    failed(e);
+                }
+            }
+            tick++;
+        }
+    }
+
+    private void failed(RuntimeException e) {
+        handlerFailures.incrementAndGet();
+        ErrorHandler onError = errorHandler;
+        if (onError != null) {
+            try {
+                onError.onError(name, e);
+            } catch (RuntimeException ignored) {
+                // a failing error handler must not stop the wheel
+            }
+        }
+    }
+
+    private void transferPending(long startMillis) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // bucket n is expired at startMillis + (n + 1) * tickMillis
+            long ticks = Math.max(tick, Math.floorDiv(timeout.deadline - startMillis + tickMillis - 1, tickMillis) - 1);
+            timeout.rounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // The entry stays in its bucket and is dropped when the wheel reaches it
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Bucket {
+        private final List<Timeout> timeouts = new ArrayList<>();
+
+        void add(Timeout timeout) {
+            timeouts.add(timeout);
+        }
+
+        List<Timeout> expire(long now) {
+            List<Timeout> expired = new ArrayList<>();
+            for (Iterator<Timeout> it = timeouts.iterator(); it.hasNext(); ) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                } else if (timeout.deadline <= now) {
+                    it.remove();
+                    expired.add(timeout);
+                }
+            }
+            return expired;
+        }
+    }
+}
@@ -2,26 +2,34 @@ package app;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class User {
-    private final int id;  // made final since ID shouldn't change
-    private static int idCounter = 1;
+    private final long id;  // made final since ID shouldn't change
     private String name;
     private String email;
-    private String password;
+    private volatile String passwordHash; // salted PBKDF2, see PasswordHasher; null = no password set
 
     // Constructor with validation
     public User(String name, String email, String password)
             throws InvalidEmailException, InvalidPasswordException {
-        this.id = idCounter++;
+        this.id = IdGenerator.nextId();
         setName(name);
         setEmail(email);  // using setter for validation
         setPassword(password);
     }
 
+    // Account without a password (guest checkout); login() fails until one is set
+    protected User(String name, String email) throws InvalidEmailException {
+        this.id = IdGenerator.nextId();
+        setName(name);
+        setEmail(email);
+    }
+
     // Getters
-    public int getId() {
+    public long getId() {
         return id;
     }
 
@@ -33,8 +41,12 @@ public abstract class User {
         return email;
     }
 
-    protected String getPassword() {
-        return password;
+    public boolean hasPassword() {
+        return passwordHash != null;
+    }
+
+    protected boolean checkPassword(String enteredPassword) {
+        return enteredPassword != null && PasswordHasher.verify(enteredPassword, passwordHash);
     }
 
     // Setters with validation
@@ -56,7 +68,7 @@ public abstract class User {
         if (password == null || password.length() < 8) {
             throw new InvalidPasswordException("Password must be at least 8 characters");
         }
-        this.password = password;
+        this.passwordHash = PasswordHasher.hash(password);
     }
 
     // Abstract methods
@@ -72,7 +84,7 @@ public abstract class User {
     @Override
     public boolean login(String enteredPassword) {
         // In real system, might have stronger admin password requirements
-        boolean success = enteredPassword != null && enteredPassword.equals(getPassword());
+        boolean success = checkPassword(enteredPassword);
         System.out.println(getName() + " (Admin) " + (success ? "successfully" : "failed to") + " log in.");
         return success;
     }
@@ -91,13 +103,20 @@ class Customer extends User {
     public Customer(String name, String email, String password)
             throws InvalidEmailException, InvalidPasswordException {
                 super(name, email, password);
-                this.bookings = new ArrayList<>();
+                this.bookings = new CopyOnWriteArrayList<>(); // appended once per booking, read far more often
                 this.paymentMethods = new ArrayList<>();
     }
 
-    // Return defensive copies instead of direct references
+    // Guest checkout, see CustomerRegistry
+    Customer(String name, String email) throws InvalidEmailException {
+        super(name, email);
+        this.bookings = new CopyOnWriteArrayList<>();
+        this.paymentMethods = new ArrayList<>();
+    }
+
+    // Read-only view; the list is copy-on-write, so readers never see it change under them
     public List<Booking> getBookings() {
-        return new ArrayList<>(bookings);
+        return Collections.unmodifiableList(bookings);
     }
 
     public List<Payment> getPaymentMethods() {
@@ -118,7 +137,7 @@ class Customer extends User {
 
     @Override
     public boolean login(String enteredPassword) {
-        boolean success = enteredPassword != null && enteredPassword.equals(getPassword());
+        boolean success = checkPassword(enteredPassword);
         System.out.println(getName() + " (Customer) " + (success ? "successfully" : "failed to") + " log in.");
         return success;
     }
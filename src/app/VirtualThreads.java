@@ -0,0 +1,35 @@
+package app;
+
+
+
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Thread-per-task executors for blocking work (payments, notifications, HTTP).
+ Uses virtual threads when the runtime has them (JDK 21+); on older runtimes
+ it falls back to a cached pool of daemon platform threads so the code still
+ compiles and runs there.
+*/
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newPerTaskExecutor(String namePrefix) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, namePrefix + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
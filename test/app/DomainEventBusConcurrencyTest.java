@@ -0,0 +1,149 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Producers push numbered events through a small ring, many times round,
+ while a fast, a slow and a failing subscriber read them and another one
+ subscribes midway. Every subscriber must see each producer's events
+ exactly once and in order (from its first one, for the late subscriber):
+ a lost, repeated or overwritten slot shows up as a gap or a step back.
+ The slow subscriber keeps the publishers in backpressure; the failing one
+ checks that handler exceptions are counted and do not stop it.
+
+ Runs with the other tests by mvn -B test, or alone from the repository
+ root (exits non-zero on failure):
+   javac -d out $(ls src/app/*.java | grep -v -e App.java -e ReviewWindow.java -e RoomCardGrid.java) test/app/*.java
+   java -cp out app.DomainEventBusConcurrencyTest
+*/
+public class DomainEventBusConcurrencyTest {
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 100_000;
+    private static final int CAPACITY = 64;
+    private static final int FAIL_EVERY = 1_000;
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        DomainEventBus bus = new DomainEventBus("test", CAPACITY);
+        AtomicLong reportedFailures = new AtomicLong();
+        bus.setErrorHandler((subscriber, event, sequence, e) -> reportedFailures.incrementAndGet());
+        Room room = new Room(1, "Single", 10_000, true, 1);
+        try {
+            Checker fast = new Checker(false, 0);
+            Checker slow = new Checker(false, 0);
+            Checker failing = new Checker(false, FAIL_EVERY);
+            slow.pauseEvery = 5_000;
+            bus.subscribe("fast", fast);
+            bus.subscribe("slow", slow);
+            bus.subscribe("failing", failing);
+
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        bus.priceChanged(room, producer, i); // old price = producer, new price = event number
+                    }
+                });
+                producers.add(thread);
+                thread.start();
+            }
+            while (bus.getPublishedCount() < EVENTS_PER_PRODUCER) {
+                Thread.onSpinWait();
+            }
+            Checker late = new Checker(true, 0);
+            bus.subscribe("late", late);
+            for (Thread thread : producers) {
+                thread.join(TIMEOUT_MILLIS);
+                check(!thread.isAlive(), "a producer is stuck");
+            }
+
+            long total = (long) PRODUCERS * EVENTS_PER_PRODUCER;
+            check(bus.getPublishedCount() == total, "published " + bus.getPublishedCount() + " of " + total);
+            for (Checker checker : new Checker[] {fast, slow, failing, late}) {
+                checker.awaitLast();
+                check(checker.failure == null, checker.failure);
+            }
+            check(fast.received.get() == total, "fast subscriber got " + fast.received.get());
+            check(slow.received.get() == total, "slow subscriber got " + slow.received.get());
+            check(failing.received.get() == total, "failing subscriber got " + failing.received.get());
+            check(late.received.get() > 0 && late.received.get() < total, "late subscriber got " + late.received.get());
+            long thrown = total / FAIL_EVERY;
+            check(bus.getHandlerFailures() == thrown, "counted " + bus.getHandlerFailures() + " failures, expected " + thrown);
+            check(reportedFailures.get() == thrown, "error handler saw " + reportedFailures.get() + " failures");
+            System.out.println("ok: " + total + " events through a ring of " + CAPACITY + ", none lost or overwritten");
+        } finally {
+            bus.shutdown();
+        }
+    }
+
+    // Expects each producer's numbers to follow one another
+    private static final class Checker implements DomainEventBus.Handler {
+        private final boolean late;
+        private final int failEvery;
+        private final long[] next = new long[PRODUCERS];
+        private final AtomicLong received = new AtomicLong();
+        private int pauseEvery;
+        private volatile String failure;
+
+        Checker(boolean late, int failEvery) {
+            this.late = late;
+            this.failEvery = failEvery;
+            Arrays.fill(next, late ? -1 : 0);
+        }
+
+        @Override
+        public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) throws Exception {
+            int producer = (int) event.getOldPriceCents();
+            long number = event.getNewPriceCents();
+            if (late && next[producer] == -1) {
+                next[producer] = number; // starts wherever the producer was when it subscribed
+            }
+            if (number != next[producer] && failure == null) {
+                failure = "producer " + producer + ": expected event " + next[producer] + ", got " + number + " at sequence " + sequence;
+            }
+            next[producer] = number + 1;
+            long count = received.incrementAndGet();
+            if (pauseEvery > 0 && count % pauseEvery == 0) {
+                Thread.sleep(2); // fall behind so publishers hit a full ring
+            }
+            if (failEvery > 0 && count % failEvery == 0) {
+                throw new IllegalStateException("handler failure " + count);
+            }
+        }
+
+        // Waits until the last event of every producer has been handled
+        void awaitLast() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (!done()) {
+                check(System.currentTimeMillis() < deadline, "timed out waiting for a subscriber, received " + received.get());
+                Thread.sleep(10);
+            }
+        }
+
+        private boolean done() {
+            received.get(); // reads next after the handler's writes to it
+            if (failure != null) {
+                return true;
+            }
+            for (long expected : next) {
+                if (expected != EVENTS_PER_PRODUCER) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Threads draw ids from one generator as fast as they can, well past 4096
+ per millisecond. Every id is unique, each thread sees its ids increase,
+ and all carry the generator's node id.
+
+ Runs with the other tests by mvn -B test, or alone from the repository
+ root (exits non-zero on failure):
+   javac -d out $(ls src/app/*.java | grep -v -e App.java -e ReviewWindow.java -e RoomCardGrid.java) test/app/*.java
+   java -cp out app.IdGeneratorConcurrencyTest
+*/
+public class IdGeneratorConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+    private static final int NODE_ID = 37;
+
+    public static void main(String[] args) throws Exception {
+        IdGenerator generator = new IdGenerator(NODE_ID);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                long[] ids = new long[IDS_PER_THREAD];
+                go.await();
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.next();
+                }
+                return ids;
+            }));
+        }
+        go.countDown();
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        int n = 0;
+        for (Future<long[]> result : results) {
+            long[] ids = result.get();
+            for (int i = 0; i < ids.length; i++) {
+                check(i == 0 || ids[i] > ids[i - 1], "ids went backwards within a thread at " + i);
+                check(IdGenerator.nodeOf(ids[i]) == NODE_ID, "id " + ids[i] + " has node " + IdGenerator.nodeOf(ids[i]));
+                all[n++] = ids[i];
+            }
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            check(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+        System.out.println("ok: " + all.length + " unique ids");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
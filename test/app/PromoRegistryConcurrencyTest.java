@@ -0,0 +1,113 @@
+package app;
+
+
+
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Threads redeem one capped promo code at once. Exactly maxRedemptions
+ redemptions succeed, no customer goes over maxPerCustomer, and with
+ redeem/release churn the count never exceeds the cap and ends at zero.
+
+ Runs with the other tests by mvn -B test, or alone from the repository
+ root (exits non-zero on failure):
+   javac -d out $(ls src/app/*.java | grep -v -e App.java -e ReviewWindow.java -e RoomCardGrid.java) test/app/*.java
+   java -cp out app.PromoRegistryConcurrencyTest
+*/
+public class PromoRegistryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int CAP = 100;
+    private static final int PER_CUSTOMER = 2;
+    private static final int CUSTOMERS = 80;
+
+    public static void main(String[] args) throws Exception {
+        redeemUpToTheCap();
+        churnBelowTheCap();
+        System.out.println("ok: promo code caps held under contention");
+    }
+
+    private static void redeemUpToTheCap() throws Exception {
+        PromoRegistry registry = new PromoRegistry();
+        registry.add(new PromoCode("RACE", 0.1, CAP, PER_CUSTOMER, null, null));
+        ConcurrentHashMap<String, AtomicInteger> won = new ConcurrentHashMap<>();
+        AtomicInteger successes = new AtomicInteger();
+        run(t -> {
+            for (int i = 0; i < 500; i++) {
+                String email = "guest" + ((t * 31 + i) % CUSTOMERS) + "@example.com";
+                try {
+                    registry.redeem("RACE", email, new Date());
+                    successes.incrementAndGet();
+                    won.computeIfAbsent(email, k -> new AtomicInteger()).incrementAndGet();
+                } catch (InvalidCodeException expected) {
+                    // cap or per-customer limit reached
+                }
+            }
+        });
+        check(successes.get() == CAP, "expected " + CAP + " redemptions, got " + successes.get());
+        check(registry.get("RACE").getRedemptions() == CAP, "counter is " + registry.get("RACE").getRedemptions());
+        won.forEach((email, count) -> check(count.get() <= PER_CUSTOMER, email + " redeemed " + count.get() + " times"));
+    }
+
+    private static void churnBelowTheCap() throws Exception {
+        PromoRegistry registry = new PromoRegistry();
+        registry.add(new PromoCode("CHURN", 0.1, CAP / 10, PromoCode.UNLIMITED, null, null));
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        run(t -> {
+            for (int i = 0; i < 20_000; i++) {
+                String email = "guest" + t + "@example.com";
+                try {
+                    registry.redeem("CHURN", email, new Date());
+                } catch (InvalidCodeException expected) {
+                    continue;
+                }
+                maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                check(registry.get("CHURN").getRedemptions() <= CAP / 10, "cap exceeded");
+                held.decrementAndGet();
+                registry.release("CHURN", email);
+            }
+        });
+        check(maxHeld.get() <= CAP / 10, "held " + maxHeld.get() + " redemptions at once");
+        check(registry.get("CHURN").getRedemptions() == 0, "counter is " + registry.get("CHURN").getRedemptions() + " after releasing all");
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void run(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                go.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> result : results) {
+            result.get(); // rethrows a failed check
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
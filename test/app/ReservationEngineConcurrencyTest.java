@@ -0,0 +1,124 @@
+package app;
+
+
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Threads race group and single reservations over a handful of rooms and
+ overlapping dates, releasing some of what they win. No room may ever be
+ held twice for the same night, and once everything is released every
+ night is free again.
+
+ Runs with the other tests by mvn -B test, or alone from the repository
+ root (exits non-zero on failure):
+   javac -d out $(ls src/app/*.java | grep -v -e App.java -e ReviewWindow.java -e RoomCardGrid.java) test/app/*.java
+   java -cp out app.ReservationEngineConcurrencyTest
+*/
+public class ReservationEngineConcurrencyTest {
+    private static final int ROOMS = 12;
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS = 2_000;
+    private static final int DAYS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Hotel hotel = new Hotel();
+        try {
+            for (int number = 1; number <= ROOMS; number++) {
+                hotel.addRoom(new Room(number, "Single", 10_000, true, 1));
+            }
+            ReservationEngine engine = new ReservationEngine(hotel);
+            LocalDate start = LocalDate.now().plusDays(1);
+
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<List<Reservation>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return race(engine, start, new Random(seed));
+                }));
+            }
+            go.countDown();
+            List<Reservation> kept = new ArrayList<>();
+            for (Future<List<Reservation>> result : results) {
+                kept.addAll(result.get());
+            }
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+
+            int[][] nights = new int[ROOMS + 1][DAYS + 3];
+            for (Reservation reservation : kept) {
+                int room = reservation.getRoom().getRoomNumber();
+                for (LocalDate day = reservation.getFrom(); day.isBefore(reservation.getTo()); day = day.plusDays(1)) {
+                    int night = (int) (day.toEpochDay() - start.toEpochDay());
+                    check(++nights[room][night] == 1, "room #" + room + " double-booked on " + day);
+                }
+            }
+            for (int number = 1; number <= ROOMS; number++) {
+                Room room = hotel.getRoom(number);
+                for (int night = 0; night < nights[number].length; night++) {
+                    LocalDate day = start.plusDays(night);
+                    check(room.isAvailable(day, day.plusDays(1)) == (nights[number][night] == 0),
+                            "room #" + number + " schedule disagrees with the reservations on " + day);
+                }
+            }
+
+            for (Reservation reservation : kept) {
+                check(engine.release(reservation), "could not release " + reservation);
+            }
+            for (int number = 1; number <= ROOMS; number++) {
+                check(hotel.getRoom(number).isAvailable(start, start.plusDays(DAYS + 3)), "room #" + number + " still held");
+            }
+            System.out.println("ok: " + kept.size() + " reservations kept, no room booked twice");
+        } finally {
+            hotel.shutdown();
+        }
+    }
+
+    // Mixes group and single reservations; releases about a third of the wins, returns the rest
+    private static List<Reservation> race(ReservationEngine engine, LocalDate start, Random random) {
+        List<Reservation> kept = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            LocalDate from = start.plusDays(random.nextInt(DAYS));
+            LocalDate to = from.plusDays(1 + random.nextInt(3));
+            List<Reservation> won = new ArrayList<>();
+            if (random.nextBoolean()) {
+                List<RoomRequest> requests = List.of(new RoomRequest(RoomType.SINGLE, from, to, 1 + random.nextInt(3)));
+                GroupReservationResult result = engine.reserveGroup(requests);
+                if (result.isReserved()) {
+                    won.addAll(result.getGroup().getReservations());
+                }
+            } else {
+                ReservationResult result = engine.reserve(1 + random.nextInt(ROOMS), from, to);
+                if (result.isReserved()) {
+                    won.add(result.getReservation());
+                }
+            }
+            for (Reservation reservation : won) {
+                if (random.nextInt(3) == 0) {
+                    check(engine.release(reservation), "could not release " + reservation);
+                } else {
+                    kept.add(reservation);
+                }
+            }
+        }
+        return kept;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}